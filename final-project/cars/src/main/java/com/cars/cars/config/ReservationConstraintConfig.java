@@ -0,0 +1,49 @@
+package com.cars.cars.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Database-level guard against double bookings. hibernate ddl-auto cannot express
+ * exclusion constraints, so the GiST-backed constraint is installed here on startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReservationConstraintConfig implements ApplicationRunner {
+
+    private static final String CREATE_EXTENSION = "CREATE EXTENSION IF NOT EXISTS btree_gist";
+
+    // Active reservations of the same car may not share any instant
+    private static final String ADD_EXCLUSION_CONSTRAINT = """
+            DO $$
+            BEGIN
+                IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'reservations_no_overlap') THEN
+                    ALTER TABLE reservations ADD CONSTRAINT reservations_no_overlap
+                        EXCLUDE USING gist (car_id WITH =, tsrange(start_date, end_date, '[]') WITH &&)
+                        WHERE (status IN ('PENDING', 'CONFIRMED'));
+                END IF;
+            END $$
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            jdbcTemplate.execute(CREATE_EXTENSION);
+            jdbcTemplate.execute(ADD_EXCLUSION_CONSTRAINT);
+        } catch (Exception e) {
+            // Existing overlapping rows or missing privileges; striped locks still protect this node
+            log.error("Could not install reservations_no_overlap constraint; overlapping bookings are only"
+                    + " prevented within this node", e);
+        }
+    }
+}
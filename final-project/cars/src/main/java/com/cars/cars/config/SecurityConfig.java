@@ -1,5 +1,6 @@
 package com.cars.cars.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -31,6 +32,9 @@ public class SecurityConfig {
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
                 .and()
                 .authorizeHttpRequests((requests) -> requests
+                        // Re-dispatches of server-sent event streams were authorized when they opened
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Public endpoints - allow without authentication
                         .requestMatchers(HttpMethod.GET,
                                 "/",
@@ -59,6 +63,9 @@ public class SecurityConfig {
                                 "/api/auth/verify-totp-setup"
                         ).permitAll()
 
+                        // Price quotes for browsing visitors
+                        .requestMatchers(HttpMethod.POST, "/api/cars/quotes").permitAll()
+
                         // Authenticated endpoints
                         .requestMatchers(HttpMethod.POST, "/api/payments/initiate").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/payments").authenticated()
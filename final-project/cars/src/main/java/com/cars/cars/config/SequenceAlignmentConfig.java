@@ -0,0 +1,51 @@
+package com.cars.cars.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Entities moved from IDENTITY columns to pooled sequences (allocationSize 50) so Hibernate can
+ * batch inserts. Sequences created by ddl-auto start at 1, so on databases that already hold rows
+ * each sequence is advanced past the current max(id) before any new ids are handed out.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SequenceAlignmentConfig implements ApplicationRunner {
+
+    // sequence -> table
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "cars_seq", "cars",
+            "reservations_seq", "reservations",
+            "payments_seq", "payments",
+            "notifications_seq", "notifications",
+            "users_seq", "users"
+    );
+
+    private static final String ALIGN_SEQUENCE = """
+            SELECT setval('%1$s', m) FROM (SELECT COALESCE(MAX(id), 0) AS m FROM %2$s) ids
+            WHERE m >= (SELECT last_value FROM %1$s)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                jdbcTemplate.execute(String.format(ALIGN_SEQUENCE, sequence, table));
+            } catch (Exception e) {
+                log.error("Could not align sequence {} with table {}", sequence, table, e);
+            }
+        });
+    }
+}
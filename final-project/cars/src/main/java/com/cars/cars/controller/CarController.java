@@ -1,25 +1,42 @@
 package com.cars.cars.controller;
 
 import com.cars.cars.service.ImageUploadService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.cars.cars.dto.CarFilterDTO;
+import com.cars.cars.dto.CarQuoteDTO;
+import com.cars.cars.dto.CarQuoteRequestDTO;
 import com.cars.cars.dto.CarStatsDTO;
+import com.cars.cars.dto.FleetAvailabilityDTO;
+import com.cars.cars.dto.RevenueBucketDTO;
 import com.cars.cars.dto.UserDto;
+import com.cars.cars.dto.UtilizationDTO;
 import com.cars.cars.model.Car;
 import com.cars.cars.service.ApiResponse;
+import com.cars.cars.service.CarAvailabilityService;
 import com.cars.cars.service.CarService;
+import com.cars.cars.service.DailyRollupService;
 import com.cars.cars.service.FileStorageService;
+import com.cars.cars.service.JsonStreamWriter;
+import com.cars.cars.service.QuoteService;
+import com.cars.cars.service.UtilizationService;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -29,13 +46,19 @@ public class CarController {
     private final FileStorageService fileStorageService;
     private final CarService carService;
     private final ImageUploadService imageUploadService;
+    private final CarAvailabilityService carAvailabilityService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final QuoteService quoteService;
+    private final DailyRollupService dailyRollupService;
+    private final UtilizationService utilizationService;
 
     private Car normalizeImageUrl(Car car) {
-        if (car != null && car.getImageUrl() != null
-                && !car.getImageUrl().startsWith("/cars/")
-                && !car.getImageUrl().startsWith("http")) {
-            // only normalize local files, not cloud URLs
-            car.setImageUrl("/cars/" + car.getImageUrl());
+        // Catalog snapshots are shared and already normalized, so only touch cars that still need it
+        if (car != null) {
+            String imageUrl = CarService.normalizeImageUrl(car.getImageUrl());
+            if (imageUrl != null && !imageUrl.equals(car.getImageUrl())) {
+                car.setImageUrl(imageUrl);
+            }
         }
         return car;
     }
@@ -44,6 +67,27 @@ public class CarController {
         return cars.stream().map(this::normalizeImageUrl).collect(Collectors.toList());
     }
 
+    // Catalog lists are tagged with the catalog version; revalidations are answered before any list is built
+    private ResponseEntity<ApiResponse<List<Car>>> catalogResponse(
+            WebRequest request, Supplier<List<Car>> cars, String message) {
+        CarService.CatalogVersion catalogVersion = carService.getCatalogVersion();
+        String eTag = "\"catalog-" + catalogVersion.version() + "\"";
+        if (request.checkNotModified(eTag, catalogVersion.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .lastModified(catalogVersion.lastModified())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(catalogVersion.lastModified())
+                .body(ApiResponse.success(normalizeImageUrls(cars.get()), message));
+    }
+
+    private static String carETag(Long id, Long version) {
+        return "\"car-" + id + "-" + version + "\"";
+    }
+
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ApiResponse<Car>> createCar(@RequestBody Car car) {
@@ -56,17 +100,29 @@ public class CarController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Car>>> getAllCars() {
-        List<Car> cars = normalizeImageUrls(carService.getAllCars());
-        return ResponseEntity.ok(ApiResponse.success(cars, "Cars retrieved successfully"));
+    public ResponseEntity<ApiResponse<List<Car>>> getAllCars(WebRequest request) {
+        return catalogResponse(request, carService::getAllCars, "Cars retrieved successfully");
+    }
+
+    // ?stream=true writes the catalog snapshot element by element instead of serializing a built list
+    @GetMapping(params = "stream=true")
+    public void streamAllCars(HttpServletResponse response) throws IOException {
+        jsonStreamWriter.write(response, "Cars retrieved successfully", carService.getAllCars().iterator());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Car>> getCarById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<Car>> getCarById(@PathVariable Long id, WebRequest request) {
         try {
+            // Revalidations are answered from the catalog's copy of the row version
+            Long catalogVersion = carService.getCatalogCarVersion(id);
+            if (catalogVersion != null && request.checkNotModified(carETag(id, catalogVersion))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(carETag(id, catalogVersion)).build();
+            }
             Car car = carService.getCarById(id);
             normalizeImageUrl(car);
-            return ResponseEntity.ok(ApiResponse.success(car, "Car retrieved successfully"));
+            return ResponseEntity.ok()
+                    .eTag(carETag(car.getId(), car.getVersion()))
+                    .body(ApiResponse.success(car, "Car retrieved successfully"));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -74,29 +130,39 @@ public class CarController {
 
 
     @GetMapping("/available")
-    public ResponseEntity<ApiResponse<List<Car>>> getAvailableCars() {
-        List<Car> cars = normalizeImageUrls(carService.getAvailableCars());
-        return ResponseEntity.ok(ApiResponse.success(cars, "Available cars retrieved successfully"));
+    public ResponseEntity<ApiResponse<List<Car>>> getAvailableCars(WebRequest request) {
+        return catalogResponse(request, carService::getAvailableCars, "Available cars retrieved successfully");
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<ApiResponse<FleetAvailabilityDTO>> getFleetAvailability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            FleetAvailabilityDTO availability = carAvailabilityService.getFleetAvailability(from, to);
+            return ResponseEntity.ok(ApiResponse.success(availability, "Fleet availability retrieved successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/make/{make}")
-    public ResponseEntity<ApiResponse<List<Car>>> getCarsByMake(@PathVariable String make) {
-        List<Car> cars = normalizeImageUrls(carService.getCarsByMake(make));
-        return ResponseEntity.ok(ApiResponse.success(cars, "Cars retrieved successfully"));
+    public ResponseEntity<ApiResponse<List<Car>>> getCarsByMake(@PathVariable String make, WebRequest request) {
+        return catalogResponse(request, () -> carService.getCarsByMake(make), "Cars retrieved successfully");
     }
 
     @GetMapping("/year-range")
     public ResponseEntity<ApiResponse<List<Car>>> getCarsByYearRange(
             @RequestParam Integer startYear,
-            @RequestParam Integer endYear) {
-        List<Car> cars = normalizeImageUrls(carService.getCarsByYearRange(startYear, endYear));
-        return ResponseEntity.ok(ApiResponse.success(cars, "Cars retrieved successfully"));
+            @RequestParam Integer endYear,
+            WebRequest request) {
+        return catalogResponse(request, () -> carService.getCarsByYearRange(startYear, endYear),
+                "Cars retrieved successfully");
     }
 
     @GetMapping("/max-price")
-    public ResponseEntity<ApiResponse<List<Car>>> getCarsByMaxPrice(@RequestParam BigDecimal maxPrice) {
-        List<Car> cars = normalizeImageUrls(carService.getCarsByMaxPrice(maxPrice));
-        return ResponseEntity.ok(ApiResponse.success(cars, "Cars retrieved successfully"));
+    public ResponseEntity<ApiResponse<List<Car>>> getCarsByMaxPrice(@RequestParam BigDecimal maxPrice, WebRequest request) {
+        return catalogResponse(request, () -> carService.getCarsByMaxPrice(maxPrice), "Cars retrieved successfully");
     }
 
     @PutMapping("/{id}")
@@ -131,6 +197,16 @@ public class CarController {
         }
     }
 
+    @PostMapping(value = "/quotes", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<List<CarQuoteDTO>>> quoteCars(@RequestBody CarQuoteRequestDTO request) {
+        try {
+            List<CarQuoteDTO> quotes = quoteService.quote(request);
+            return ResponseEntity.ok(ApiResponse.success(quotes, "Quotes calculated successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/stats")
     public ResponseEntity<ApiResponse<CarStatsDTO>> getCarStats() {
         try {
@@ -141,13 +217,45 @@ public class CarController {
         }
     }
 
+    // Revenue, reserved car-days and bookings between two dates, answered from the daily rollups
+    @GetMapping("/stats/revenue")
+    public ResponseEntity<ApiResponse<List<RevenueBucketDTO>>> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String groupBy,
+            @RequestParam(required = false) Long carId) {
+        try {
+            List<RevenueBucketDTO> buckets = dailyRollupService.getRevenue(from, to, groupBy, carId);
+            return ResponseEntity.ok(ApiResponse.success(buckets, "Revenue retrieved successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // Occupancy per car, make and month between two dates
+    @GetMapping("/stats/utilization")
+    public ResponseEntity<ApiResponse<UtilizationDTO>> getUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            UtilizationDTO utilization = utilizationService.getUtilization(from, to);
+            return ResponseEntity.ok(ApiResponse.success(utilization, "Utilization retrieved successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<Page<Car>>> searchCars(
+    public ResponseEntity<ApiResponse<Slice<Car>>> searchCars(
             @ModelAttribute CarFilterDTO filter,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean countTotal) {
         try {
-            Page<Car> cars = carService.filterCars(filter, PageRequest.of(page, size));
+            // countTotal=false skips the count and only reports whether a next page exists
+            Slice<Car> cars = countTotal
+                    ? carService.filterCars(filter, PageRequest.of(page, size))
+                    : carService.filterCarsSlice(filter, PageRequest.of(page, size));
             cars.forEach(this::normalizeImageUrl);
             return ResponseEntity.ok(ApiResponse.success(cars, "Cars retrieved successfully"));
         } catch (Exception e) {
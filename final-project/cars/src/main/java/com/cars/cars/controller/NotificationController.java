@@ -2,17 +2,21 @@ package com.cars.cars.controller;
 
 import java.util.List;
 
-import com.cars.cars.repository.NotificationRepository;
 import com.cars.cars.repository.PaymentRepository;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import lombok.RequiredArgsConstructor;
 
+import com.cars.cars.dto.NotificationIdsDTO;
 import com.cars.cars.model.Notification;
 import com.cars.cars.model.User;
+import com.cars.cars.service.AdminDashboardStream;
 import com.cars.cars.service.NotificationService;
+import com.cars.cars.service.NotificationStream;
 import com.cars.cars.service.UserService;
 
 @RestController
@@ -22,7 +26,8 @@ public class NotificationController {
 
     private final NotificationService notificationService;
     private final UserService userService;
-    private final NotificationRepository  notificationRepository;
+    private final AdminDashboardStream adminDashboardStream;
+    private final NotificationStream notificationStream;
 
     @GetMapping
     public List<Notification> getUserNotifications() {
@@ -30,6 +35,15 @@ public class NotificationController {
         return notificationService.getUserNotifications(user);
     }
 
+    // New notifications pushed as they are created; browsers resend Last-Event-ID when reconnecting
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(value = "lastEventId", required = false) Long lastEventIdParam) {
+        User user = userService.getCurrentUser();
+        return notificationStream.subscribe(user, lastEventId != null ? lastEventId : lastEventIdParam);
+    }
+
     @GetMapping("/admin")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<Notification>> getAdminNotifications() {
@@ -52,6 +66,13 @@ public class NotificationController {
         }
     }
 
+    // Live dashboard stats and unread count, pushed instead of polled
+    @GetMapping(value = "/admin/dashboard-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter streamAdminDashboard() {
+        return adminDashboardStream.subscribe();
+    }
+
     @GetMapping("/type/{type}")
     @PreAuthorize("hasRole('ADMIN')")
     public List<Notification> getNotificationsByType(@PathVariable String type) {
@@ -69,6 +90,26 @@ public class NotificationController {
         notificationService.markAllAsRead(user);
     }
 
+    @PatchMapping("/read-batch")
+    public ResponseEntity<Integer> markBatchAsRead(@RequestBody NotificationIdsDTO request) {
+        try {
+            User user = userService.getCurrentUser();
+            return ResponseEntity.ok(notificationService.markAsRead(user, request.getIds()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/delete-batch")
+    public ResponseEntity<Integer> deleteBatch(@RequestBody NotificationIdsDTO request) {
+        try {
+            User user = userService.getCurrentUser();
+            return ResponseEntity.ok(notificationService.deleteNotifications(user, request.getIds()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public void deleteNotification(@PathVariable Long id) {
         notificationService.deleteNotification(id);
@@ -77,6 +118,6 @@ public class NotificationController {
     @DeleteMapping("/admin/clear-all")
     @PreAuthorize("hasRole('ADMIN')")
     public void clearAllNotifications() {
-        notificationRepository.deleteAll();
+        notificationService.clearAll();
     }
 }
\ No newline at end of file
@@ -2,14 +2,17 @@ package com.cars.cars.controller;
 
 import com.cars.cars.dto.CreatePaymentDTO;
 import com.cars.cars.dto.PaymentDTO;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.cars.cars.model.PaymentStatus;
 import com.cars.cars.service.ApiResponse;
+import com.cars.cars.service.JsonStreamWriter;
 import com.cars.cars.service.PaymentService;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -17,6 +20,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PaymentController {
     private final PaymentService paymentService;
+    private final JsonStreamWriter jsonStreamWriter;
 
     @PostMapping
     public ResponseEntity<ApiResponse<PaymentDTO>> createPayment(@RequestBody CreatePaymentDTO dto) {
@@ -55,6 +59,13 @@ public class PaymentController {
         return ResponseEntity.ok(ApiResponse.success(payments, "Payments retrieved successfully"));
     }
 
+    // ?stream=true writes the same envelope incrementally instead of building the whole list
+    @GetMapping(params = "stream=true")
+    public void streamAllPayments(HttpServletResponse response) throws IOException {
+        jsonStreamWriter.writeFromDatabase(response, "Payments retrieved successfully",
+                paymentService::streamAllPayments, PaymentDTO::fromEntity);
+    }
+
     @PatchMapping("/{id}/status")
     public ResponseEntity<ApiResponse<PaymentDTO>> updatePaymentStatus(
             @PathVariable Long id,
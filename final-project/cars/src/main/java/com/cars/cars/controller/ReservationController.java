@@ -1,6 +1,7 @@
 package com.cars.cars.controller;
 
 import com.cars.cars.dto.UserDto;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -13,10 +14,14 @@ import com.cars.cars.model.Reservation;
 import com.cars.cars.model.ReservationStatus;
 import com.cars.cars.model.User;
 import com.cars.cars.service.ApiResponse;
+import com.cars.cars.service.BatchReservationResultDTO;
 import com.cars.cars.service.CreateReservationDTO;
+import com.cars.cars.service.JsonStreamWriter;
 import com.cars.cars.service.ReservationDTO;
+import com.cars.cars.service.ReservationPageDTO;
 import com.cars.cars.service.ReservationService;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,6 +30,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ReservationController {
     private final ReservationService reservationService;
+    private final JsonStreamWriter jsonStreamWriter;
 
     @PostMapping(
         consumes = MediaType.APPLICATION_JSON_VALUE,
@@ -34,8 +40,7 @@ public class ReservationController {
         try {
             // Input validation first
             if (dto.getCarId() == null || dto.getUserId() == null || 
-                dto.getStartDate() == null || dto.getEndDate() == null || 
-                dto.getTotalPrice() == null) {
+                dto.getStartDate() == null || dto.getEndDate() == null) {
                 return ResponseEntity.badRequest()
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(ApiResponse.error("Missing required fields for reservation"));
@@ -52,7 +57,6 @@ public class ReservationController {
             reservation.setUser(user);
             reservation.setStartDate(dto.getStartDate());
             reservation.setEndDate(dto.getEndDate());
-            reservation.setTotalPrice(dto.getTotalPrice());
             reservation.setStatus(ReservationStatus.PENDING);
             
             Reservation createdReservation = reservationService.createReservation(reservation);
@@ -67,18 +71,58 @@ public class ReservationController {
                 .body(ApiResponse.error(e.getMessage()));
         }
     }
-    
 
-    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @PostMapping(
+        value = "/batch",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<ApiResponse<List<BatchReservationResultDTO>>> createReservationBatch(
+            @RequestBody List<CreateReservationDTO> dtos) {
+        try {
+            List<BatchReservationResultDTO> results = reservationService.createReservationBatch(dtos);
+            long created = results.stream().filter(BatchReservationResultDTO::isSuccess).count();
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponse.success(results, "Created " + created + " of " + results.size() + " reservations"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // Paging is opt-in: without cursor or size the whole list is returned, as existing clients expect
+    @GetMapping(params = {"!cursor", "!size", "!stream"}, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ApiResponse<List<ReservationDTO>>> getAllReservations() {
-        List<Reservation> reservations = reservationService.getAllReservations();
-        List<ReservationDTO> dtos = reservations.stream()
-            .map(ReservationDTO::fromEntity)
-            .collect(Collectors.toList());
-            
         return ResponseEntity.ok()
             .contentType(MediaType.APPLICATION_JSON)
-            .body(ApiResponse.success(dtos, "Reservations retrieved successfully"));
+            .body(ApiResponse.success(reservationService.getReservationList(), "Reservations retrieved successfully"));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<ReservationPageDTO>> getReservationPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            ReservationPageDTO page = reservationService.getReservationPage(cursor, size);
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponse.success(page, "Reservations retrieved successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // ?stream=true returns every reservation in one incrementally written response instead of a keyset page
+    @GetMapping(params = "stream=true")
+    public void streamAllReservations(HttpServletResponse response) throws IOException {
+        jsonStreamWriter.writeFromDatabase(response, "Reservations retrieved successfully",
+            reservationService::streamAllReservations, ReservationDTO::fromListItem);
     }
 
     @GetMapping(
@@ -101,32 +145,66 @@ public class ReservationController {
 
     @GetMapping(
         value = "/user/{userId}",
+        params = {"!cursor", "!size"},
         produces = MediaType.APPLICATION_JSON_VALUE
     )
     public ResponseEntity<ApiResponse<List<ReservationDTO>>> getReservationsByUser(@PathVariable Long userId) {
-        List<Reservation> reservations = reservationService.getReservationsByUser(userId);
-        List<ReservationDTO> dtos = reservations.stream()
-            .map(ReservationDTO::fromEntity)
-            .collect(Collectors.toList());
-            
         return ResponseEntity.ok()
             .contentType(MediaType.APPLICATION_JSON)
-            .body(ApiResponse.success(dtos, "User reservations retrieved successfully"));
+            .body(ApiResponse.success(reservationService.getReservationListByUser(userId), "User reservations retrieved successfully"));
+    }
+
+    @GetMapping(
+        value = "/user/{userId}",
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<ApiResponse<ReservationPageDTO>> getReservationPageByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            ReservationPageDTO page = reservationService.getReservationPageByUser(userId, cursor, size);
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponse.success(page, "User reservations retrieved successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping(
         value = "/car/{carId}",
+        params = {"!cursor", "!size"},
         produces = MediaType.APPLICATION_JSON_VALUE
     )
     public ResponseEntity<ApiResponse<List<ReservationDTO>>> getReservationsByCar(@PathVariable Long carId) {
-        List<Reservation> reservations = reservationService.getReservationsByCar(carId);
-        List<ReservationDTO> dtos = reservations.stream()
-            .map(ReservationDTO::fromEntity)
-            .collect(Collectors.toList());
-            
         return ResponseEntity.ok()
             .contentType(MediaType.APPLICATION_JSON)
-            .body(ApiResponse.success(dtos, "Car reservations retrieved successfully"));
+            .body(ApiResponse.success(reservationService.getReservationListByCar(carId), "Car reservations retrieved successfully"));
+    }
+
+    @GetMapping(
+        value = "/car/{carId}",
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<ApiResponse<ReservationPageDTO>> getReservationPageByCar(
+            @PathVariable Long carId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            ReservationPageDTO page = reservationService.getReservationPageByCar(carId, cursor, size);
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponse.success(page, "Car reservations retrieved successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @PatchMapping(
@@ -1,5 +1,6 @@
 package com.cars.cars.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -8,9 +9,11 @@ import org.springframework.web.bind.annotation.*;
 
 import com.cars.cars.model.User;
 import com.cars.cars.service.ApiResponse;
+import com.cars.cars.service.JsonStreamWriter;
 import com.cars.cars.service.UserService;
 import com.cars.cars.model.Role;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +22,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final JsonStreamWriter jsonStreamWriter;
 
     @PostMapping(
             consumes = MediaType.APPLICATION_JSON_VALUE,
@@ -50,6 +54,13 @@ public class UserController {
                            .body(ApiResponse.success(users, "Users retrieved successfully"));
     }
 
+    // ?stream=true writes the same envelope incrementally instead of building the whole list
+    @GetMapping(params = "stream=true")
+    public void streamAllUsers(HttpServletResponse response) throws IOException {
+        jsonStreamWriter.writeFromDatabase(response, "Users retrieved successfully",
+                userService::streamAllUsers, user -> user);
+    }
+
     @GetMapping(
         value = "/{id}",
         produces = MediaType.APPLICATION_JSON_VALUE
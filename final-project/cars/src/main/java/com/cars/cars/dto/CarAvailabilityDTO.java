@@ -0,0 +1,12 @@
+package com.cars.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CarAvailabilityDTO {
+    private Long carId;
+    // One character per day in the requested range: '1' = reserved, '0' = free
+    private String reservedDays;
+}
@@ -0,0 +1,17 @@
+package com.cars.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+// Value -> count per facet; each facet ignores its own filter so its other values stay selectable
+@Data
+@AllArgsConstructor
+public class CarFacetsDTO {
+    private Map<String, Integer> make;
+    private Map<String, Integer> transmission;
+    private Map<String, Integer> driveType;
+    private Map<String, Integer> year;
+    private Map<String, Integer> priceRange;
+}
@@ -1,8 +1,12 @@
 package com.cars.cars.dto;
 
+import com.cars.cars.model.DriveType;
 import com.cars.cars.model.TransmissionType;
 import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Data
 public class CarFilterDTO {
@@ -10,9 +14,15 @@ public class CarFilterDTO {
     private String model;
     private Integer year;
     private TransmissionType transmission;
+    private DriveType driveType;
     private BigDecimal minPrice;
     private BigDecimal maxPrice;
     private Boolean onlyAvailable;
+    // Only return cars with no PENDING/CONFIRMED reservation between these days (inclusive)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
     private String sortBy;
     private String sortDirection;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.cars.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class CarQuoteDTO {
+    private Long carId;
+    private long days;
+    private BigDecimal pricePerDay;
+    private BigDecimal totalPrice;
+}
@@ -0,0 +1,13 @@
+package com.cars.cars.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class CarQuoteRequestDTO {
+    private List<Long> carIds;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
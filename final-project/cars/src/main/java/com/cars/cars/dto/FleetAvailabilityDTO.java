@@ -0,0 +1,16 @@
+package com.cars.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class FleetAvailabilityDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private int days;
+    private List<CarAvailabilityDTO> cars;
+}
@@ -0,0 +1,10 @@
+package com.cars.cars.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class NotificationIdsDTO {
+    private List<Long> ids;
+}
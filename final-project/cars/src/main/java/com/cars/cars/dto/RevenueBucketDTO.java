@@ -0,0 +1,16 @@
+package com.cars.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class RevenueBucketDTO {
+    // ISO day, ISO week (2024-W07), month (2024-02) or car id, depending on the grouping
+    private String key;
+    private BigDecimal revenue;
+    private long reservedDays;
+    private long reservations;
+}
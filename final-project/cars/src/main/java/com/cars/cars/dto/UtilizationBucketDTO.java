@@ -0,0 +1,14 @@
+package com.cars.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UtilizationBucketDTO {
+    // Car id, make or month (2024-02), depending on the breakdown
+    private String key;
+    private long occupiedDays;
+    private long capacityDays;
+    private double occupancy;
+}
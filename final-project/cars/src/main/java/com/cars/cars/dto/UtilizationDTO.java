@@ -0,0 +1,19 @@
+package com.cars.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UtilizationDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private int days;
+    private UtilizationBucketDTO fleet;
+    private List<UtilizationBucketDTO> cars;
+    private List<UtilizationBucketDTO> makes;
+    private List<UtilizationBucketDTO> months;
+}
@@ -21,7 +21,8 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 public class Car {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cars_seq")
+    @SequenceGenerator(name = "cars_seq", sequenceName = "cars_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -55,6 +56,11 @@ public class Car {
     @Column(nullable = false)
     private Boolean isAvailable = true;
 
+    // Row version for optimistic locking and per-car ETags; the default backfills existing rows
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @OneToMany(mappedBy = "car", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnoreProperties({"car", "hibernateLazyInitializer", "handler"})
     @ToString.Exclude
@@ -0,0 +1,49 @@
+package com.cars.cars.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Per car and calendar day totals of booked reservations, kept up to date by DailyRollupService
+@Data
+@Entity
+@IdClass(DailyCarRollup.Key.class)
+@Table(name = "daily_car_rollups", indexes = {
+        @Index(name = "idx_daily_car_rollups_car_day", columnList = "car_id, day")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyCarRollup {
+
+    @Id
+    private LocalDate day;
+
+    @Id
+    @Column(name = "car_id")
+    private Long carId;
+
+    // Share of the totals of COMPLETED reservations covering this day
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    // 1 when a CONFIRMED or COMPLETED reservation holds the car on this day
+    @Column(nullable = false)
+    private long reservedDays;
+
+    // CONFIRMED or COMPLETED reservations starting on this day
+    @Column(nullable = false)
+    private long reservations;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Long carId;
+    }
+}
@@ -3,6 +3,7 @@ package com.cars.cars.model;
 import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -29,7 +30,8 @@ public class Notification {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -54,4 +56,9 @@ public class Notification {
 
     // Additional metadata
     private String metadata; // JSON string for additional data
+
+    // Outbox event that produced this notification; unique so redelivered events are not applied twice
+    @Column(unique = true)
+    @JsonIgnore
+    private Long outboxEventId;
 }
\ No newline at end of file
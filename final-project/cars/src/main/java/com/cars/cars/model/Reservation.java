@@ -14,12 +14,20 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Data
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        // Serves the overlap anti-join used by date-range car search
+        @Index(name = "idx_reservations_car_status_dates", columnList = "car_id, status, start_date, end_date"),
+        // Keyset pagination of reservation listings on (created_at, id)
+        @Index(name = "idx_reservations_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_reservations_user_created_id", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_reservations_car_created_id", columnList = "car_id, created_at, id")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Reservation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_seq")
+    @SequenceGenerator(name = "reservations_seq", sequenceName = "reservations_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.EAGER)
@@ -0,0 +1,15 @@
+package com.cars.cars.repository;
+
+import com.cars.cars.model.ReservationStatus;
+
+import java.time.LocalDateTime;
+
+// Projection of a PENDING or CONFIRMED reservation; what the interval index and the catalog's car cards need
+public interface ActiveReservation {
+    Long getId();
+    Long getCarId();
+    LocalDateTime getStartDate();
+    LocalDateTime getEndDate();
+    ReservationStatus getStatus();
+    LocalDateTime getCreatedAt();
+}
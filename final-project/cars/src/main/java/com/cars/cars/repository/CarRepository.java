@@ -2,12 +2,15 @@ package com.cars.cars.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.cars.cars.model.Car;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CarRepository extends JpaRepository<Car, Long> {
@@ -18,12 +21,18 @@ public interface CarRepository extends JpaRepository<Car, Long> {
     List<Car> findByPricePerDayLessThanEqual(BigDecimal maxPrice);    
 
     long countByIsAvailableTrue();        
+
+    @Query("SELECT c.id FROM Car c ORDER BY c.id")
+    List<Long> findAllIds();
     
     @Query("SELECT COUNT(r) FROM Reservation r WHERE r.status = 'PENDING'")
     long countPendingReservations();
     
     @Query("SELECT AVG(c.pricePerDay) FROM Car c")
     BigDecimal findAveragePricePerDay();
+
+    @Query("SELECT COALESCE(SUM(c.pricePerDay), 0) FROM Car c")
+    BigDecimal sumPricePerDay();
     
     @Query("SELECT COALESCE(SUM(r.totalPrice), 0) FROM Reservation r " +
            "WHERE r.status = 'COMPLETED'")
@@ -38,4 +47,34 @@ public interface CarRepository extends JpaRepository<Car, Long> {
         
     """)
     List<Car> findRentedByUser(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("""
+      UPDATE Car c SET c.isAvailable = false, c.version = c.version + 1
+      WHERE c.id IN (
+        SELECT r.car.id FROM Reservation r
+        WHERE r.id IN :reservationIds
+          AND r.status = 'CONFIRMED'
+          AND r.startDate <= :now
+          AND r.endDate > :now
+      )
+    """)
+    int markCarsRentedForStartedReservations(
+            @Param("reservationIds") Collection<Long> reservationIds,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+      UPDATE Car c SET c.isAvailable = true, c.version = c.version + 1
+      WHERE c.id IN :carIds
+        AND NOT EXISTS (
+          SELECT r.id FROM Reservation r
+          WHERE r.car.id = c.id
+            AND r.status = 'CONFIRMED'
+            AND r.endDate > :now
+        )
+    """)
+    int releaseCarsWithoutConfirmedReservations(
+            @Param("carIds") Collection<Long> carIds,
+            @Param("now") LocalDateTime now);
 }
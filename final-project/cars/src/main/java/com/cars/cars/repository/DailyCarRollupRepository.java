@@ -0,0 +1,40 @@
+package com.cars.cars.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.cars.cars.model.DailyCarRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyCarRollupRepository extends JpaRepository<DailyCarRollup, DailyCarRollup.Key> {
+
+    @Query("""
+    SELECT r.day AS day, SUM(r.revenue) AS revenue,
+           SUM(r.reservedDays) AS reservedDays, SUM(r.reservations) AS reservations
+    FROM DailyCarRollup r
+    WHERE r.day BETWEEN :from AND :to
+    AND (:carId IS NULL OR r.carId = :carId)
+    GROUP BY r.day
+    ORDER BY r.day
+""")
+    List<RollupTotals> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("carId") Long carId);
+
+    @Query("""
+    SELECT r.carId AS carId, SUM(r.revenue) AS revenue,
+           SUM(r.reservedDays) AS reservedDays, SUM(r.reservations) AS reservations
+    FROM DailyCarRollup r
+    WHERE r.day BETWEEN :from AND :to
+    AND (:carId IS NULL OR r.carId = :carId)
+    GROUP BY r.carId
+    ORDER BY r.carId
+""")
+    List<RollupTotals> sumByCar(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("carId") Long carId);
+
+    @Modifying
+    @Query("DELETE FROM DailyCarRollup r WHERE r.carId = :carId")
+    int deleteByCarId(@Param("carId") Long carId);
+}
@@ -1,9 +1,12 @@
 package com.cars.cars.repository;
 
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.cars.cars.model.Notification;
@@ -33,7 +36,40 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     long countByUserAndReadFalse(User user);
 
+    long countByUserIdAndReadFalse(Long userId);
+
+    @Query("SELECT n.user.id AS userId, COUNT(n) AS unread FROM Notification n WHERE n.read = false GROUP BY n.user.id")
+    List<UnreadCount> countUnreadByUser();
+
+    // Notifications a reconnecting stream missed, oldest first
+    List<Notification> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
+
+    List<Notification> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("SELECT n.outboxEventId FROM Notification n WHERE n.outboxEventId IN :eventIds")
+    List<Long> findDeliveredOutboxEventIds(@Param("eventIds") Collection<Long> eventIds);
+
     @Modifying
     @Query("DELETE FROM Notification n WHERE n.user.id = :userId")
     void deleteByUserId(Long userId);
+
+    // Set-based state changes; a null userId leaves the ids unscoped (admins)
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId AND n.read = false")
+    int markAllAsReadByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.id IN :ids AND n.read = false AND (:userId IS NULL OR n.user.id = :userId)")
+    int markAsReadByIdIn(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids AND (:userId IS NULL OR n.user.id = :userId)")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    @Query("""
+    SELECT n.user.id AS userId, COUNT(n) AS unread FROM Notification n
+    WHERE n.id IN :ids AND n.read = false AND (:userId IS NULL OR n.user.id = :userId)
+    GROUP BY n.user.id
+""")
+    List<UnreadCount> countUnreadByUserAndIdIn(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
 }
\ No newline at end of file
@@ -1,13 +1,27 @@
  package com.cars.cars.repository;
 
+ import org.hibernate.jpa.HibernateHints;
  import org.springframework.data.jpa.repository.JpaRepository;
+ import org.springframework.data.jpa.repository.Query;
+ import org.springframework.data.jpa.repository.QueryHints;
 
  import com.cars.cars.model.Payment;
 
+ import jakarta.persistence.QueryHint;
+
  import java.util.Optional;
+ import java.util.stream.Stream;
 
  public interface PaymentRepository extends JpaRepository<Payment, Long> {
      Optional<Payment> findByReservationId(Long reservationId);
      Optional<Payment> findByTransactionId(String transactionId);
      boolean existsByTransactionId(String transactionId);
+
+     // Must be consumed inside a transaction; rows arrive in fetch-size chunks instead of all at once
+     @QueryHints({
+             @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+             @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+     })
+     @Query("SELECT p FROM Payment p JOIN FETCH p.reservation r JOIN FETCH r.user JOIN FETCH r.car ORDER BY p.id")
+     Stream<Payment> streamAllWithDetails();
  }
@@ -0,0 +1,10 @@
+package com.cars.cars.repository;
+
+import java.time.LocalDateTime;
+
+// Projection of a PENDING reservation used to rebuild hold deadlines at startup
+public interface ReservationHold {
+    Long getId();
+    Long getCarId();
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,11 @@
+package com.cars.cars.repository;
+
+import java.time.LocalDateTime;
+
+// Lightweight projection used to build in-memory reservation indexes without loading car/user graphs
+public interface ReservationInterval {
+    Long getId();
+    Long getCarId();
+    LocalDateTime getStartDate();
+    LocalDateTime getEndDate();
+}
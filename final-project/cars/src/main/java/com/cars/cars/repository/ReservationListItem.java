@@ -0,0 +1,23 @@
+package com.cars.cars.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.cars.cars.model.ReservationStatus;
+
+// Flat projection with only the columns ReservationDTO needs, so listings skip the car/user entity graphs
+public interface ReservationListItem {
+    Long getId();
+    Long getCarId();
+    String getCarMake();
+    String getCarModel();
+    String getCarImageUrl();
+    Long getUserId();
+    String getUserEmail();
+    LocalDateTime getStartDate();
+    LocalDateTime getEndDate();
+    BigDecimal getTotalPrice();
+    ReservationStatus getStatus();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
@@ -1,15 +1,23 @@
 package com.cars.cars.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.cars.cars.model.Reservation;
 import com.cars.cars.model.ReservationStatus;
 
+import jakarta.persistence.QueryHint;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
     List<Reservation> findByUserId(Long userId);
@@ -51,4 +59,193 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     AND r.endDate >= CURRENT_TIMESTAMP
 """)
     List<Reservation> findActiveReservationsForCar(@Param("carId") Long carId);
+
+    // Keyset pages ordered newest first; (createdAt, id) is the cursor of the last row already seen.
+    // The plain createdAt <= bound lets the (created_at, id) indexes start the scan at the cursor.
+    @Query("""
+    SELECT r.id AS id, c.id AS carId, c.make AS carMake, c.model AS carModel, c.imageUrl AS carImageUrl,
+           u.id AS userId, u.email AS userEmail, r.startDate AS startDate, r.endDate AS endDate,
+           r.totalPrice AS totalPrice, r.status AS status, r.createdAt AS createdAt, r.updatedAt AS updatedAt
+    FROM Reservation r
+    JOIN r.car c
+    JOIN r.user u
+    WHERE
+    r.createdAt <= :createdAt AND (r.createdAt < :createdAt OR r.id < :id)
+    ORDER BY r.createdAt DESC, r.id DESC
+""")
+    List<ReservationListItem> findListItemsBefore(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Query("""
+    SELECT r.id AS id, c.id AS carId, c.make AS carMake, c.model AS carModel, c.imageUrl AS carImageUrl,
+           u.id AS userId, u.email AS userEmail, r.startDate AS startDate, r.endDate AS endDate,
+           r.totalPrice AS totalPrice, r.status AS status, r.createdAt AS createdAt, r.updatedAt AS updatedAt
+    FROM Reservation r
+    JOIN r.car c
+    JOIN r.user u
+    WHERE u.id = :userId AND
+    r.createdAt <= :createdAt AND (r.createdAt < :createdAt OR r.id < :id)
+    ORDER BY r.createdAt DESC, r.id DESC
+""")
+    List<ReservationListItem> findListItemsByUserBefore(
+            @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Query("""
+    SELECT r.id AS id, c.id AS carId, c.make AS carMake, c.model AS carModel, c.imageUrl AS carImageUrl,
+           u.id AS userId, u.email AS userEmail, r.startDate AS startDate, r.endDate AS endDate,
+           r.totalPrice AS totalPrice, r.status AS status, r.createdAt AS createdAt, r.updatedAt AS updatedAt
+    FROM Reservation r
+    JOIN r.car c
+    JOIN r.user u
+    WHERE c.id = :carId AND
+    r.createdAt <= :createdAt AND (r.createdAt < :createdAt OR r.id < :id)
+    ORDER BY r.createdAt DESC, r.id DESC
+""")
+    List<ReservationListItem> findListItemsByCarBefore(
+            @Param("carId") Long carId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    // Must be consumed inside a transaction; rows arrive in fetch-size chunks instead of all at once
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+    SELECT r.id AS id, c.id AS carId, c.make AS carMake, c.model AS carModel, c.imageUrl AS carImageUrl,
+           u.id AS userId, u.email AS userEmail, r.startDate AS startDate, r.endDate AS endDate,
+           r.totalPrice AS totalPrice, r.status AS status, r.createdAt AS createdAt, r.updatedAt AS updatedAt
+    FROM Reservation r
+    JOIN r.car c
+    JOIN r.user u
+    ORDER BY r.createdAt DESC, r.id DESC
+""")
+    Stream<ReservationListItem> streamListItems();
+
+    // Intervals touching [from, to], pulled lazily for the utilization sweep; consume inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+    SELECT r.id AS id, r.car.id AS carId, r.startDate AS startDate, r.endDate AS endDate
+    FROM Reservation r
+    WHERE r.status IN :statuses
+    AND r.startDate <= :to
+    AND r.endDate >= :from
+""")
+    Stream<ReservationInterval> streamIntervalsOverlapping(
+            @Param("statuses") Collection<ReservationStatus> statuses,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    @Query("""
+    SELECT r.id AS id, r.car.id AS carId, r.startDate AS startDate, r.endDate AS endDate
+    FROM Reservation r
+    WHERE r.status IN :statuses
+""")
+    List<ReservationInterval> findIntervalsByStatusIn(@Param("statuses") Collection<ReservationStatus> statuses);
+
+    @Query("""
+    SELECT r.id AS id, r.car.id AS carId, r.startDate AS startDate, r.endDate AS endDate
+    FROM Reservation r
+    WHERE r.car.id = :carId
+    AND r.status IN :statuses
+""")
+    List<ReservationInterval> findIntervalsForCar(
+            @Param("carId") Long carId,
+            @Param("statuses") Collection<ReservationStatus> statuses
+    );
+
+    @Query("""
+    SELECT r.id AS id, r.car.id AS carId, r.startDate AS startDate, r.endDate AS endDate,
+           r.status AS status, r.createdAt AS createdAt
+    FROM Reservation r
+    WHERE r.status IN :statuses
+""")
+    List<ActiveReservation> findActiveByStatusIn(@Param("statuses") Collection<ReservationStatus> statuses);
+
+    @Query("""
+    SELECT r.id AS id, r.car.id AS carId, r.startDate AS startDate, r.endDate AS endDate,
+           r.status AS status, r.createdAt AS createdAt
+    FROM Reservation r
+    WHERE r.car.id = :carId
+    AND r.status IN :statuses
+""")
+    List<ActiveReservation> findActiveForCar(
+            @Param("carId") Long carId,
+            @Param("statuses") Collection<ReservationStatus> statuses
+    );
+
+    @Query("""
+    SELECT r.id AS id, r.car.id AS carId, r.startDate AS startDate, r.endDate AS endDate
+    FROM Reservation r
+    WHERE r.id IN :ids
+    AND r.status = :status
+""")
+    List<ReservationInterval> findIntervalsByIdInAndStatus(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") ReservationStatus status
+    );
+
+    @Query("""
+    SELECT r.id AS id, r.car.id AS carId, r.createdAt AS createdAt
+    FROM Reservation r
+    WHERE r.status = :status
+""")
+    List<ReservationHold> findHoldsByStatus(@Param("status") ReservationStatus status);
+
+    @Modifying
+    @Query("""
+    UPDATE Reservation r
+    SET r.status = :cancelled, r.updatedAt = :now
+    WHERE r.id IN :ids
+    AND r.status = :pending
+""")
+    int cancelPendingReservations(
+            @Param("ids") Collection<Long> ids,
+            @Param("now") LocalDateTime now,
+            @Param("pending") ReservationStatus pending,
+            @Param("cancelled") ReservationStatus cancelled
+    );
+
+    @Query("""
+    SELECT r.id AS id, r.car.id AS carId, r.startDate AS startDate, r.endDate AS endDate, r.totalPrice AS totalPrice, r.status AS status
+    FROM Reservation r
+    WHERE r.status IN :statuses
+""")
+    List<ReservationTotal> findTotalsByStatusIn(@Param("statuses") Collection<ReservationStatus> statuses);
+
+    // The rows completeEndedReservations is about to complete, with the totals they add to revenue
+    @Query("""
+    SELECT r.id AS id, r.car.id AS carId, r.startDate AS startDate, r.endDate AS endDate, r.totalPrice AS totalPrice, r.status AS status
+    FROM Reservation r
+    WHERE r.id IN :ids
+    AND r.status = :confirmed
+    AND r.endDate <= :now
+""")
+    List<ReservationTotal> findEndedReservationTotals(
+            @Param("ids") Collection<Long> ids,
+            @Param("now") LocalDateTime now,
+            @Param("confirmed") ReservationStatus confirmed
+    );
+
+    @Modifying
+    @Query("""
+    UPDATE Reservation r
+    SET r.status = :completed, r.updatedAt = :now
+    WHERE r.id IN :ids
+    AND r.status = :confirmed
+    AND r.endDate <= :now
+""")
+    int completeEndedReservations(
+            @Param("ids") Collection<Long> ids,
+            @Param("now") LocalDateTime now,
+            @Param("confirmed") ReservationStatus confirmed,
+            @Param("completed") ReservationStatus completed
+    );
 }
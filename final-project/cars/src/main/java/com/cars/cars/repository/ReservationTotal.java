@@ -0,0 +1,16 @@
+package com.cars.cars.repository;
+
+import com.cars.cars.model.ReservationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Projection of a reservation's interval and price, used to maintain revenue rollups
+public interface ReservationTotal {
+    Long getId();
+    Long getCarId();
+    LocalDateTime getStartDate();
+    LocalDateTime getEndDate();
+    BigDecimal getTotalPrice();
+    ReservationStatus getStatus();
+}
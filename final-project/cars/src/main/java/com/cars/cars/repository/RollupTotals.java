@@ -0,0 +1,13 @@
+package com.cars.cars.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Rollup sums for one day or one car; getDay() or getCarId() is null depending on the grouping
+public interface RollupTotals {
+    LocalDate getDay();
+    Long getCarId();
+    BigDecimal getRevenue();
+    Long getReservedDays();
+    Long getReservations();
+}
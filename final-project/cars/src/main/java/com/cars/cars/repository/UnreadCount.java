@@ -0,0 +1,7 @@
+package com.cars.cars.repository;
+
+// Unread notifications of one user, used to reconcile the in-memory counters
+public interface UnreadCount {
+    Long getUserId();
+    Long getUnread();
+}
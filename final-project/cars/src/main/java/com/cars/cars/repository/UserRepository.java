@@ -1,8 +1,17 @@
 package com.cars.cars.repository;
 
+import jakarta.persistence.QueryHint;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.cars.cars.model.User;
 
@@ -14,4 +23,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // Add case-insensitive check
     boolean existsByEmailIgnoreCase(String email);
+
+    // Keyset chunks of user ids for streaming every user
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Reservations and their cars come back in the same query, so serializing the users loads nothing lazily
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+    SELECT DISTINCT u FROM User u
+    LEFT JOIN FETCH u.reservations r
+    LEFT JOIN FETCH r.car
+    WHERE u.id IN :ids
+    ORDER BY u.id
+""")
+    List<User> findWithReservationsByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
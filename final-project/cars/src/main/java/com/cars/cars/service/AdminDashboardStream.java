@@ -0,0 +1,122 @@
+package com.cars.cars.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Events feed for admin dashboards. One scheduled producer samples the dashboard stats
+ * and the admin unread count once per dashboard.stream.update-interval, which caps the update rate
+ * however often the figures change, and fans the changed fields out to every subscriber. The sampling cost does not
+ * grow with the number of open dashboards, and nothing is sampled while nobody is subscribed.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdminDashboardStream {
+    private static final long EMITTER_TIMEOUT_MILLIS = 30 * 60_000;
+    // Silence after which a keep-alive comment is sent, whatever the update interval
+    private static final long HEARTBEAT_NANOS = Duration.ofSeconds(15).toNanos();
+
+    private final DashboardStats dashboardStats;
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    // Last published values, guarded by this
+    private Map<String, Object> lastSnapshot;
+    private long lastSentNanos;
+
+    @Value("${dashboard.stream.update-interval:500ms}")
+    private Duration updateInterval;
+
+    // Checked before the schedule is registered, so a bad interval fails startup with a clear message
+    @PostConstruct
+    void checkUpdateInterval() {
+        if (updateInterval.isNegative() || updateInterval.isZero()) {
+            throw new IllegalStateException("dashboard.stream.update-interval must be positive, got " + updateInterval);
+        }
+    }
+
+    // Starts with a full snapshot; every later event carries only the fields that changed
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        synchronized (this) {
+            // Sent from the producer's baseline so the next delta applies cleanly on top of it
+            if (lastSnapshot == null) {
+                lastSnapshot = sample();
+            }
+            try {
+                emitter.send(SseEmitter.event().name("snapshot").data(lastSnapshot));
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                return emitter;
+            }
+            subscribers.add(emitter);
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedRateString = "${dashboard.stream.update-interval:500ms}")
+    public synchronized void publish() {
+        long now = System.nanoTime();
+        if (subscribers.isEmpty()) {
+            // Sampled afresh for the next subscriber
+            lastSnapshot = null;
+            lastSentNanos = now;
+            return;
+        }
+        Map<String, Object> snapshot = sample();
+        Map<String, Object> delta = new LinkedHashMap<>();
+        snapshot.forEach((field, value) -> {
+            if (lastSnapshot == null || !Objects.equals(value, lastSnapshot.get(field))) {
+                delta.put(field, value);
+            }
+        });
+        lastSnapshot = snapshot;
+
+        if (!delta.isEmpty()) {
+            lastSentNanos = now;
+            broadcast(() -> SseEmitter.event().name("delta").data(delta));
+        } else if (now - lastSentNanos >= HEARTBEAT_NANOS) {
+            // Keeps proxies from closing idle connections
+            lastSentNanos = now;
+            broadcast(() -> SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    // Builders are single use, so every subscriber gets its own
+    private void broadcast(Supplier<SseEmitter.SseEventBuilder> event) {
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> sample() {
+        Map<String, Object> snapshot = new LinkedHashMap<>(objectMapper.convertValue(dashboardStats.getStats(), Map.class));
+        snapshot.put("adminUnreadCount", notificationService.getAdminUnreadCount());
+        return snapshot;
+    }
+}
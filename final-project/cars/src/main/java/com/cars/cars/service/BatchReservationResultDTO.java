@@ -0,0 +1,21 @@
+package com.cars.cars.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BatchReservationResultDTO {
+    private int index;
+    private boolean success;
+    private String message;
+    private ReservationDTO reservation;
+
+    public static BatchReservationResultDTO success(int index, ReservationDTO reservation) {
+        return new BatchReservationResultDTO(index, true, "Reservation created successfully", reservation);
+    }
+
+    public static BatchReservationResultDTO failure(int index, String message) {
+        return new BatchReservationResultDTO(index, false, message, null);
+    }
+}
@@ -0,0 +1,149 @@
+package com.cars.cars.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.cars.cars.dto.CarAvailabilityDTO;
+import com.cars.cars.dto.FleetAvailabilityDTO;
+import com.cars.cars.model.Reservation;
+import com.cars.cars.repository.CarRepository;
+import com.cars.cars.repository.ReservationInterval;
+import com.cars.cars.repository.ReservationRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Fleet availability calendar backed by one day bitset (long[]) per car.
+ * Bits are set incrementally as reservations become active; a car's bitset is rebuilt
+ * from the database only when one of its reservations is released. Bit 0 of a bitset is
+ * January 1st of the year before the bitset was built; earlier days are reported as free.
+ */
+@Service
+@RequiredArgsConstructor
+public class CarAvailabilityService {
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final ReservationRepository reservationRepository;
+    private final CarRepository carRepository;
+    private final ConcurrentHashMap<Long, DayBitset> bitsets = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (ReservationInterval interval : reservationRepository.findIntervalsByStatusIn(ReservationIntervalIndex.ACTIVE_STATUSES)) {
+            bitset(interval.getCarId()).mark(interval.getStartDate(), interval.getEndDate());
+        }
+    }
+
+    public FleetAvailabilityDTO getFleetAvailability(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new RuntimeException("Both from and to dates are required");
+        }
+        if (to.isBefore(from)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > MAX_RANGE_DAYS) {
+            throw new RuntimeException("Availability range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        char[] buffer = new char[days];
+        List<CarAvailabilityDTO> cars = new ArrayList<>();
+        for (Long carId : carRepository.findAllIds()) {
+            DayBitset bitset = bitsets.get(carId);
+            if (bitset == null) {
+                Arrays.fill(buffer, '0');
+            } else {
+                bitset.render(from, buffer);
+            }
+            cars.add(new CarAvailabilityDTO(carId, new String(buffer)));
+        }
+        return new FleetAvailabilityDTO(from, to, days, cars);
+    }
+
+    public void track(Reservation reservation) {
+        Long carId = reservation.getCar().getId();
+        LocalDateTime start = reservation.getStartDate();
+        LocalDateTime end = reservation.getEndDate();
+
+        if (ReservationIntervalIndex.ACTIVE_STATUSES.contains(reservation.getStatus())) {
+            AfterCommit.run(() -> bitset(carId).mark(start, end));
+        } else {
+            untrack(carId);
+        }
+    }
+
+    public void untrack(Long carId) {
+        // Days may be shared with other reservations of the car, so recompute instead of clearing bits
+        AfterCommit.run(() -> bitset(carId).rebuild(
+                () -> reservationRepository.findIntervalsForCar(carId, ReservationIntervalIndex.ACTIVE_STATUSES)));
+    }
+
+    private DayBitset bitset(Long carId) {
+        return bitsets.computeIfAbsent(carId, id -> new DayBitset());
+    }
+
+    private static final class DayBitset {
+        private long[] words = new long[0];
+        private long originDay = currentOrigin();
+
+        synchronized void mark(LocalDateTime start, LocalDateTime end) {
+            set(dayIndex(start.toLocalDate()), dayIndex(end.toLocalDate()));
+        }
+
+        // Also moves the origin forward, so a long-running process keeps a recent window
+        synchronized void rebuild(Supplier<List<ReservationInterval>> intervals) {
+            words = new long[0];
+            originDay = currentOrigin();
+            for (ReservationInterval interval : intervals.get()) {
+                mark(interval.getStartDate(), interval.getEndDate());
+            }
+        }
+
+        synchronized void render(LocalDate from, char[] out) {
+            int fromIndex = dayIndex(from);
+            for (int i = 0; i < out.length; i++) {
+                int index = fromIndex + i;
+                int word = index >> 6;
+                boolean reserved = index >= 0 && word < words.length && (words[word] & (1L << index)) != 0;
+                out[i] = reserved ? '1' : '0';
+            }
+        }
+
+        private int dayIndex(LocalDate day) {
+            return (int) (day.toEpochDay() - originDay);
+        }
+
+        private static long currentOrigin() {
+            return LocalDate.now().withDayOfYear(1).minusYears(1).toEpochDay();
+        }
+
+        // Sets every bit in [fromIndex, toIndex], a whole word at a time where possible
+        private void set(int fromIndex, int toIndex) {
+            fromIndex = Math.max(fromIndex, 0);
+            if (toIndex < fromIndex) {
+                return;
+            }
+            int lastWord = toIndex >> 6;
+            if (lastWord >= words.length) {
+                words = Arrays.copyOf(words, Math.max(lastWord + 1, words.length * 2));
+            }
+            int index = fromIndex;
+            while (index <= toIndex) {
+                int bit = index & 63;
+                int span = Math.min(64 - bit, toIndex - index + 1);
+                long mask = span == 64 ? -1L : ((1L << span) - 1) << bit;
+                words[index >> 6] |= mask;
+                index += span;
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.cars.cars.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed by car id. Bookings for the same car are serialized while
+ * bookings for different cars (on different stripes) proceed in parallel.
+ */
+@Component
+public class CarBookingLocks {
+    private final ReentrantLock[] stripes;
+
+    public CarBookingLocks(@Value("${reservation.lock-stripes:256}") int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // The lock is released only after commit/rollback, so the overlap check,
+    // the insert and the post-commit index update are atomic per car
+    public void lockUntilCompletion(Long carId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Car booking locks must be acquired inside a transaction");
+        }
+        lockStripeUntilCompletion(stripes[stripeIndex(carId)]);
+    }
+
+    // Stripes are taken in ascending stripe order, each once, so multi-car bookings cannot deadlock;
+    // car id order is not enough, since cars that share a stripe would interleave it with the others
+    public void lockAllUntilCompletion(Collection<Long> carIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Car booking locks must be acquired inside a transaction");
+        }
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Long carId : carIds) {
+            indexes.add(stripeIndex(carId));
+        }
+        for (int index : indexes) {
+            lockStripeUntilCompletion(stripes[index]);
+        }
+    }
+
+    private static void lockStripeUntilCompletion(ReentrantLock lock) {
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private int stripeIndex(Long carId) {
+        int hash = carId.hashCode();
+        hash ^= (hash >>> 16);
+        return hash & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,279 @@
+package com.cars.cars.service;
+
+import com.cars.cars.model.Car;
+import com.cars.cars.model.Reservation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Copy-on-write snapshot of the car catalog with secondary indexes by make, year and price.
+ * Readers grab the current immutable snapshot without locking; writers build a new snapshot
+ * and publish it atomically. Cars held here are detached copies and must not be mutated.
+ * After-commit publishes of concurrent writes can arrive out of order, so an upsert whose row
+ * version is not newer than the one held, or one for a deleted car, is dropped. Every car write,
+ * bulk UPDATEs included, bumps the version, so an equal version is a row the catalog already has.
+ * Each copy carries its car's active reservations, which the client needs to show the car's status;
+ * a change to those republishes just that car.
+ */
+final class CarCatalog {
+    // Seeded from the clock so versions keep increasing across restarts
+    private long lastVersion = System.currentTimeMillis();
+    // Counts writes so a full load that raced with a commit can be detected and retried
+    private long writes;
+    private volatile Snapshot snapshot;
+    // Ids of deleted cars; ids come from a sequence and are never reused
+    private final Set<Long> removed = new HashSet<>();
+    // Substring indexes over make and model, patched in place alongside each snapshot
+    private final TrigramIndex makeIndex = new TrigramIndex();
+    private final TrigramIndex modelIndex = new TrigramIndex();
+    // Told about every patched car as (before, after); null marks an insert or a delete
+    private final BiConsumer<Car, Car> changes;
+    // Active reservation summaries of a car, in start order
+    private final Function<Long, List<Reservation>> reservations;
+
+    CarCatalog(BiConsumer<Car, Car> changes, Function<Long, List<Reservation>> reservations) {
+        this.changes = changes;
+        this.reservations = reservations;
+    }
+
+    Snapshot current() {
+        return snapshot;
+    }
+
+    synchronized long writes() {
+        return writes;
+    }
+
+    // Returns null when a write landed after the cars were read, in which case they may be stale
+    synchronized Snapshot replaceAll(Collection<Car> cars, long expectedWrites) {
+        if (writes != expectedWrites) {
+            return null;
+        }
+        Map<Long, Car> byId = new HashMap<>();
+        makeIndex.clear();
+        modelIndex.clear();
+        for (Car car : cars) {
+            byId.put(car.getId(), copyOf(car));
+            indexText(car);
+        }
+        return publish(byId);
+    }
+
+    // Before the first full load there is nothing to patch; the load will read the committed row
+    synchronized void upsert(Car car) {
+        writes++;
+        if (snapshot != null && !isStale(car)) {
+            Map<Long, Car> byId = new HashMap<>(snapshot.byId);
+            Car copy = copyOf(car);
+            Car previous = byId.put(car.getId(), copy);
+            indexText(car);
+            publish(byId);
+            changes.accept(previous, copy);
+        }
+    }
+
+    synchronized void remove(Long carId) {
+        writes++;
+        removed.add(carId);
+        if (snapshot != null) {
+            Map<Long, Car> byId = new HashMap<>(snapshot.byId);
+            Car previous = byId.remove(carId);
+            makeIndex.remove(Math.toIntExact(carId));
+            modelIndex.remove(Math.toIntExact(carId));
+            publish(byId);
+            if (previous != null) {
+                changes.accept(previous, null);
+            }
+        }
+    }
+
+    // Re-copies a held car after its active reservations changed; its row is untouched
+    synchronized void reservationsChanged(Long carId) {
+        Car held = snapshot == null ? null : snapshot.byId.get(carId);
+        if (held != null) {
+            Map<Long, Car> byId = new HashMap<>(snapshot.byId);
+            byId.put(carId, copyOf(held));
+            publish(byId);
+        }
+    }
+
+    // Sorted ids of cars whose make and model contain the given texts, ignoring case; null skips a field
+    int[] searchText(String make, String model) {
+        if (make == null) {
+            return modelIndex.search(model);
+        }
+        int[] makeMatches = makeIndex.search(make);
+        if (model == null || makeMatches.length == 0) {
+            return makeMatches;
+        }
+        int[] modelMatches = modelIndex.search(model);
+        int[] matches = new int[Math.min(makeMatches.length, modelMatches.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < makeMatches.length && j < modelMatches.length; ) {
+            if (makeMatches[i] < modelMatches[j]) {
+                i++;
+            } else if (makeMatches[i] > modelMatches[j]) {
+                j++;
+            } else {
+                matches[count++] = makeMatches[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private boolean isStale(Car car) {
+        if (removed.contains(car.getId())) {
+            return true;
+        }
+        Car held = snapshot.byId.get(car.getId());
+        return held != null && held.getVersion() != null && car.getVersion() != null
+                && car.getVersion() <= held.getVersion();
+    }
+
+    private void indexText(Car car) {
+        int id = Math.toIntExact(car.getId());
+        makeIndex.put(id, car.getMake());
+        modelIndex.put(id, car.getModel());
+    }
+
+    private Snapshot publish(Map<Long, Car> byId) {
+        Snapshot next = new Snapshot(++lastVersion, System.currentTimeMillis(), byId);
+        snapshot = next;
+        return next;
+    }
+
+    // Detached copy with reservation summaries instead of the lazy graph, and the image URL normalized
+    private Car copyOf(Car car) {
+        Car copy = new Car();
+        copy.setId(car.getId());
+        copy.setMake(car.getMake());
+        copy.setModel(car.getModel());
+        copy.setYear(car.getYear());
+        copy.setColor(car.getColor());
+        copy.setTransmission(car.getTransmission());
+        copy.setDriveType(car.getDriveType());
+        copy.setFuelEfficiency(car.getFuelEfficiency());
+        copy.setPricePerDay(car.getPricePerDay());
+        copy.setImageUrl(CarService.normalizeImageUrl(car.getImageUrl()));
+        copy.setIsAvailable(car.getIsAvailable());
+        copy.setVersion(car.getVersion());
+        copy.setReservations(Collections.unmodifiableSet(new LinkedHashSet<>(reservations.apply(car.getId()))));
+        return copy;
+    }
+
+    static final class Snapshot {
+        private final long version;
+        private final long lastModified;
+        private final Map<Long, Car> byId;
+        private final List<Car> all;
+        private final List<Car> available;
+        private final Map<String, List<Car>> byMake;
+        private final NavigableMap<Integer, List<Car>> byYear;
+        private final NavigableMap<BigDecimal, List<Car>> byPrice;
+        private final CarColumns columns;
+
+        private Snapshot(long version, long lastModified, Map<Long, Car> byId) {
+            this.version = version;
+            this.lastModified = lastModified;
+            this.byId = Collections.unmodifiableMap(byId);
+
+            List<Car> sorted = new ArrayList<>(byId.values());
+            sorted.sort(Comparator.comparing(Car::getId));
+            this.all = Collections.unmodifiableList(sorted);
+
+            List<Car> availableCars = new ArrayList<>();
+            Map<String, List<Car>> makes = new HashMap<>();
+            NavigableMap<Integer, List<Car>> years = new TreeMap<>();
+            NavigableMap<BigDecimal, List<Car>> prices = new TreeMap<>();
+            for (Car car : sorted) {
+                if (Boolean.TRUE.equals(car.getIsAvailable())) {
+                    availableCars.add(car);
+                }
+                if (car.getMake() != null) {
+                    makes.computeIfAbsent(car.getMake().toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(car);
+                }
+                if (car.getYear() != null) {
+                    years.computeIfAbsent(car.getYear(), k -> new ArrayList<>()).add(car);
+                }
+                if (car.getPricePerDay() != null) {
+                    prices.computeIfAbsent(car.getPricePerDay(), k -> new ArrayList<>()).add(car);
+                }
+            }
+            this.available = Collections.unmodifiableList(availableCars);
+            this.byMake = makes;
+            this.byYear = years;
+            this.byPrice = prices;
+            this.columns = new CarColumns(sorted);
+        }
+
+        long version() {
+            return version;
+        }
+
+        // Epoch millis at which this snapshot was published
+        long lastModified() {
+            return lastModified;
+        }
+
+        List<Car> all() {
+            return all;
+        }
+
+        List<Car> available() {
+            return available;
+        }
+
+        CarColumns columns() {
+            return columns;
+        }
+
+        Car get(Long id) {
+            return byId.get(id);
+        }
+
+        List<Car> byMake(String make) {
+            if (make == null) {
+                return List.of();
+            }
+            return Collections.unmodifiableList(byMake.getOrDefault(make.toLowerCase(Locale.ROOT), List.of()));
+        }
+
+        List<Car> byYearRange(Integer startYear, Integer endYear) {
+            if (startYear == null || endYear == null || startYear > endYear) {
+                return List.of();
+            }
+            return flatten(byYear.subMap(startYear, true, endYear, true));
+        }
+
+        List<Car> byMaxPrice(BigDecimal maxPrice) {
+            if (maxPrice == null) {
+                return List.of();
+            }
+            return flatten(byPrice.headMap(maxPrice, true));
+        }
+
+        private static <K> List<Car> flatten(Map<K, List<Car>> buckets) {
+            List<Car> cars = new ArrayList<>();
+            buckets.values().forEach(cars::addAll);
+            return Collections.unmodifiableList(cars);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.cars.cars.service;
+
+import com.cars.cars.dto.CarFacetsDTO;
+import com.cars.cars.dto.CarFilterDTO;
+import com.cars.cars.model.Car;
+import com.cars.cars.model.DriveType;
+import com.cars.cars.model.TransmissionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * Column-oriented copy of a catalog snapshot: one primitive array per attribute, with make and
+ * model dictionary-encoded. Built once per snapshot so filters, sorting and facet counts run as
+ * plain loops over arrays: a filter yields a selection bitmap over rows, which is then sorted and paged.
+ * Make and model text matches come in as car ids from the catalog's trigram indexes.
+ */
+final class CarColumns {
+    private static final TransmissionType[] TRANSMISSIONS = TransmissionType.values();
+    private static final DriveType[] DRIVE_TYPES = DriveType.values();
+    // Upper bounds (exclusive) of the price facet buckets, in cents per day
+    private static final long[] PRICE_BUCKET_LIMITS = {5_000, 10_000, 20_000, 50_000};
+    private static final String[] PRICE_BUCKET_LABELS = {"0-50", "50-100", "100-200", "200-500", "500+"};
+
+    // Facet dimensions; a row failing exactly one of them is still counted for that facet
+    private static final int MAKE = 1;
+    private static final int TRANSMISSION = 1 << 1;
+    private static final int DRIVE_TYPE = 1 << 2;
+    private static final int YEAR = 1 << 3;
+    private static final int PRICE = 1 << 4;
+    // Model, availability and date filters always apply
+    private static final int OTHER = 1 << 5;
+
+    private static final Set<String> SORTABLE = Set.of("id", "year", "pricePerDay", "make", "model");
+
+    private static final byte NONE = -1;
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+    private static final long NO_PRICE = Long.MIN_VALUE;
+
+    final int size;
+    final Car[] cars;
+    final long[] ids;
+    final int[] year;
+    final long[] priceCents;
+    final byte[] transmission;
+    final byte[] driveType;
+    final BitSet available;
+    final int[] makeCode;
+    final String[] makes;
+    final int[] modelCode;
+    final String[] models;
+    private final int minYear;
+    private final int maxYear;
+
+    CarColumns(List<Car> rows) {
+        size = rows.size();
+        cars = rows.toArray(new Car[0]);
+        ids = new long[size];
+        year = new int[size];
+        priceCents = new long[size];
+        transmission = new byte[size];
+        driveType = new byte[size];
+        available = new BitSet(size);
+        makeCode = new int[size];
+        modelCode = new int[size];
+
+        Map<String, Integer> makeCodes = new HashMap<>();
+        Map<String, Integer> modelCodes = new HashMap<>();
+        int lowestYear = Integer.MAX_VALUE;
+        int highestYear = Integer.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            Car car = cars[row];
+            ids[row] = car.getId();
+            year[row] = car.getYear() != null ? car.getYear() : NO_YEAR;
+            if (car.getYear() != null) {
+                lowestYear = Math.min(lowestYear, car.getYear());
+                highestYear = Math.max(highestYear, car.getYear());
+            }
+            priceCents[row] = car.getPricePerDay() != null ? toCents(car.getPricePerDay()) : NO_PRICE;
+            transmission[row] = car.getTransmission() != null ? (byte) car.getTransmission().ordinal() : NONE;
+            driveType[row] = car.getDriveType() != null ? (byte) car.getDriveType().ordinal() : NONE;
+            available.set(row, Boolean.TRUE.equals(car.getIsAvailable()));
+            makeCode[row] = encode(makeCodes, car.getMake());
+            modelCode[row] = encode(modelCodes, car.getModel());
+        }
+        makes = dictionary(makeCodes);
+        models = dictionary(modelCodes);
+        minYear = lowestYear;
+        maxYear = highestYear;
+    }
+
+    /**
+     * Evaluates the filter once per row and derives both the selection bitmap and the make,
+     * transmission, drive type, year and price bucket counts from that single pass. Each facet is
+     * counted with every other filter applied but not its own, so the counts show what selecting
+     * another value of that facet would return. makeIds and modelIds are the sorted ids matching
+     * the make and model texts, or null when that text is not filtered on.
+     */
+    Evaluation evaluate(CarFilterDTO filter, int[] makeIds, int[] modelIds, LongPredicate bookedInRange) {
+        RowFilter rowFilter = new RowFilter(filter, rowsOf(makeIds), rowsOf(modelIds), bookedInRange);
+        BitSet selection = new BitSet(size);
+        int[] makeCounts = new int[makes.length];
+        int[] transmissionCounts = new int[TRANSMISSIONS.length];
+        int[] driveTypeCounts = new int[DRIVE_TYPES.length];
+        int[] yearCounts = new int[minYear <= maxYear ? maxYear - minYear + 1 : 0];
+        int[] priceCounts = new int[PRICE_BUCKET_LABELS.length];
+
+        for (int row = 0; row < size; row++) {
+            int failed = rowFilter.failedDimensions(row);
+            if (failed == 0) {
+                selection.set(row);
+            }
+            if ((failed & OTHER) != 0 || (failed & (failed - 1)) != 0) {
+                // Excluded by an always-on filter or by more than one facet
+                continue;
+            }
+            if ((failed & ~MAKE) == 0) {
+                makeCounts[makeCode[row]]++;
+            }
+            if ((failed & ~TRANSMISSION) == 0 && transmission[row] != NONE) {
+                transmissionCounts[transmission[row]]++;
+            }
+            if ((failed & ~DRIVE_TYPE) == 0 && driveType[row] != NONE) {
+                driveTypeCounts[driveType[row]]++;
+            }
+            if ((failed & ~YEAR) == 0 && year[row] != NO_YEAR) {
+                yearCounts[year[row] - minYear]++;
+            }
+            if ((failed & ~PRICE) == 0 && priceCents[row] != NO_PRICE) {
+                priceCounts[priceBucket(priceCents[row])]++;
+            }
+        }
+
+        Map<String, Integer> makeFacet = new LinkedHashMap<>();
+        for (int code = 0; code < makes.length; code++) {
+            if (makeCounts[code] > 0 && makes[code] != null) {
+                makeFacet.put(makes[code], makeCounts[code]);
+            }
+        }
+        Map<String, Integer> transmissionFacet = new LinkedHashMap<>();
+        for (TransmissionType type : TRANSMISSIONS) {
+            if (transmissionCounts[type.ordinal()] > 0) {
+                transmissionFacet.put(type.name(), transmissionCounts[type.ordinal()]);
+            }
+        }
+        Map<String, Integer> driveTypeFacet = new LinkedHashMap<>();
+        for (DriveType type : DRIVE_TYPES) {
+            if (driveTypeCounts[type.ordinal()] > 0) {
+                driveTypeFacet.put(type.name(), driveTypeCounts[type.ordinal()]);
+            }
+        }
+        Map<String, Integer> yearFacet = new LinkedHashMap<>();
+        for (int offset = 0; offset < yearCounts.length; offset++) {
+            if (yearCounts[offset] > 0) {
+                yearFacet.put(String.valueOf(minYear + offset), yearCounts[offset]);
+            }
+        }
+        Map<String, Integer> priceFacet = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < priceCounts.length; bucket++) {
+            if (priceCounts[bucket] > 0) {
+                priceFacet.put(PRICE_BUCKET_LABELS[bucket], priceCounts[bucket]);
+            }
+        }
+        return new Evaluation(selection,
+                new CarFacetsDTO(makeFacet, transmissionFacet, driveTypeFacet, yearFacet, priceFacet));
+    }
+
+    // Row of a car id, or -1; rows are ordered by id so this is a binary search
+    int rowOf(long id) {
+        int row = Arrays.binarySearch(ids, id);
+        return row >= 0 ? row : -1;
+    }
+
+    // Rows of the given car ids; ids missing from this snapshot are skipped
+    private BitSet rowsOf(int[] carIds) {
+        if (carIds == null) {
+            return null;
+        }
+        BitSet rows = new BitSet(size);
+        for (int id : carIds) {
+            int row = rowOf(id);
+            if (row >= 0) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    static boolean supportsSort(String sortBy) {
+        return sortBy == null || SORTABLE.contains(sortBy);
+    }
+
+    // One page of the selected rows; rows are in id order, so unsorted pages need no sort at all
+    List<Car> page(BitSet selection, String sortBy, boolean descending, long offset, int limit) {
+        List<Car> page = new ArrayList<>(Math.min(limit, selection.cardinality()));
+        if (sortBy == null) {
+            int skipped = 0;
+            for (int row = selection.nextSetBit(0); row >= 0 && page.size() < limit; row = selection.nextSetBit(row + 1)) {
+                if (skipped++ >= offset) {
+                    page.add(cars[row]);
+                }
+            }
+            return page;
+        }
+
+        int[] rows = selection.stream().toArray();
+        sortRows(rows, sortKeys(sortBy), descending);
+        for (long i = offset; i < rows.length && page.size() < limit; i++) {
+            page.add(cars[rows[(int) i]]);
+        }
+        return page;
+    }
+
+    private long[] sortKeys(String sortBy) {
+        long[] keys = new long[size];
+        switch (sortBy) {
+            case "id":
+                System.arraycopy(ids, 0, keys, 0, size);
+                break;
+            case "year":
+                for (int row = 0; row < size; row++) {
+                    keys[row] = year[row];
+                }
+                break;
+            case "pricePerDay":
+                System.arraycopy(priceCents, 0, keys, 0, size);
+                break;
+            case "make":
+                rankColumn(makeCode, makes, keys);
+                break;
+            case "model":
+                rankColumn(modelCode, models, keys);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+        }
+        return keys;
+    }
+
+    // Bottom-up merge sort of row numbers by key. It is stable and rows start ascending, so equal
+    // keys stay in row order in both directions.
+    private static void sortRows(int[] rows, long[] keys, boolean descending) {
+        int[] buffer = new int[rows.length];
+        for (int width = 1; width < rows.length; width <<= 1) {
+            for (int low = 0; low < rows.length - width; low += width << 1) {
+                int middle = low + width;
+                int high = Math.min(middle + width, rows.length);
+                System.arraycopy(rows, low, buffer, low, high - low);
+                int left = low;
+                int right = middle;
+                for (int out = low; out < high; out++) {
+                    boolean takeRight = left >= middle || (right < high && (descending
+                            ? keys[buffer[right]] > keys[buffer[left]]
+                            : keys[buffer[right]] < keys[buffer[left]]));
+                    rows[out] = takeRight ? buffer[right++] : buffer[left++];
+                }
+            }
+        }
+    }
+
+    // Sorts the dictionary once and keys each row by its value's rank
+    private void rankColumn(int[] codes, String[] dictionary, long[] keys) {
+        Integer[] byValue = new Integer[dictionary.length];
+        for (int code = 0; code < dictionary.length; code++) {
+            byValue[code] = code;
+        }
+        Arrays.sort(byValue, Comparator.comparing(code -> dictionary[code], Comparator.nullsLast(Comparator.naturalOrder())));
+        int[] rank = new int[dictionary.length];
+        for (int position = 0; position < byValue.length; position++) {
+            rank[byValue[position]] = position;
+        }
+        for (int row = 0; row < size; row++) {
+            keys[row] = rank[codes[row]];
+        }
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static int priceBucket(long cents) {
+        int bucket = 0;
+        while (bucket < PRICE_BUCKET_LIMITS.length && cents >= PRICE_BUCKET_LIMITS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static int encode(Map<String, Integer> codes, String value) {
+        return codes.computeIfAbsent(value, k -> codes.size());
+    }
+
+    private static String[] dictionary(Map<String, Integer> codes) {
+        String[] values = new String[codes.size()];
+        codes.forEach((value, code) -> values[code] = value);
+        return values;
+    }
+
+    // Rows matching every filter, as a bitmap over row positions, and the facet counts around them
+    record Evaluation(BitSet selection, CarFacetsDTO facets) {
+    }
+
+    // CarFilterDTO compiled against this snapshot's dictionaries and primitive columns
+    final class RowFilter {
+        private final BitSet makeRows;
+        private final BitSet modelRows;
+        private final Integer yearValue;
+        private final byte transmissionValue;
+        private final byte driveTypeValue;
+        private final long minCents;
+        private final long maxCents;
+        private final boolean onlyAvailable;
+        private final LongPredicate bookedInRange;
+
+        RowFilter(CarFilterDTO filter, BitSet makeRows, BitSet modelRows, LongPredicate bookedInRange) {
+            this.makeRows = makeRows;
+            this.modelRows = modelRows;
+            yearValue = filter.getYear();
+            transmissionValue = filter.getTransmission() != null ? (byte) filter.getTransmission().ordinal() : NONE;
+            driveTypeValue = filter.getDriveType() != null ? (byte) filter.getDriveType().ordinal() : NONE;
+            // Bounds are inclusive, so round them inwards to whole cents
+            minCents = filter.getMinPrice() != null
+                    ? filter.getMinPrice().movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact()
+                    : NO_PRICE;
+            maxCents = filter.getMaxPrice() != null
+                    ? filter.getMaxPrice().movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact()
+                    : Long.MAX_VALUE;
+            onlyAvailable = Boolean.TRUE.equals(filter.getOnlyAvailable());
+            this.bookedInRange = bookedInRange;
+        }
+
+        int failedDimensions(int row) {
+            int failed = 0;
+            if (makeRows != null && !makeRows.get(row)) {
+                failed |= MAKE;
+            }
+            if (transmissionValue != NONE && transmission[row] != transmissionValue) {
+                failed |= TRANSMISSION;
+            }
+            if (driveTypeValue != NONE && driveType[row] != driveTypeValue) {
+                failed |= DRIVE_TYPE;
+            }
+            if (yearValue != null && year[row] != yearValue) {
+                failed |= YEAR;
+            }
+            if (priceCents[row] < minCents || priceCents[row] > maxCents
+                    || (priceCents[row] == NO_PRICE && maxCents != Long.MAX_VALUE)) {
+                failed |= PRICE;
+            }
+            if ((modelRows != null && !modelRows.get(row)) || (onlyAvailable && !available.get(row))) {
+                failed |= OTHER;
+            }
+            // The reservation lookup is the only costly check, so skip it for rows that no longer count
+            if (bookedInRange != null && (failed & OTHER) == 0 && (failed & (failed - 1)) == 0
+                    && bookedInRange.test(ids[row])) {
+                failed |= OTHER;
+            }
+            return failed;
+        }
+    }
+}
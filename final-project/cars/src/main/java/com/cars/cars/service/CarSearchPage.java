@@ -0,0 +1,23 @@
+package com.cars.cars.service;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import com.cars.cars.dto.CarFacetsDTO;
+import com.cars.cars.model.Car;
+
+import java.util.List;
+
+// Search page that also carries the facet counts for the same filter
+public class CarSearchPage extends PageImpl<Car> {
+    private final CarFacetsDTO facets;
+
+    public CarSearchPage(List<Car> content, Pageable pageable, long total, CarFacetsDTO facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public CarFacetsDTO getFacets() {
+        return facets;
+    }
+}
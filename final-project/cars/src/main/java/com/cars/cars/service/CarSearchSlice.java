@@ -0,0 +1,23 @@
+package com.cars.cars.service;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import com.cars.cars.dto.CarFacetsDTO;
+import com.cars.cars.model.Car;
+
+import java.util.List;
+
+// Count-free search slice that also carries the facet counts for the same filter
+public class CarSearchSlice extends SliceImpl<Car> {
+    private final CarFacetsDTO facets;
+
+    public CarSearchSlice(List<Car> content, Pageable pageable, boolean hasNext, CarFacetsDTO facets) {
+        super(content, pageable, hasNext);
+        this.facets = facets;
+    }
+
+    public CarFacetsDTO getFacets() {
+        return facets;
+    }
+}
@@ -2,35 +2,114 @@ package com.cars.cars.service;
 
 import lombok.RequiredArgsConstructor;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.cars.cars.dto.CarFacetsDTO;
 import com.cars.cars.dto.CarFilterDTO;
 import com.cars.cars.dto.CarStatsDTO;
 import com.cars.cars.model.Car;
+import com.cars.cars.model.DriveType;
+import com.cars.cars.model.Reservation;
 import com.cars.cars.model.ReservationStatus;
+import com.cars.cars.model.TransmissionType;
 import com.cars.cars.repository.CarRepository;
-import com.cars.cars.repository.ReservationRepository;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.AbstractQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CarService {
+    private static final int MAX_CACHED_COUNTS = 1024;
+    private static final int MAX_ID_PREDICATE = 1000;
+
     private final CarRepository carRepository;
     private final EntityManager entityManager;
-    private final ReservationRepository reservationRepository;
+    private final ReservationIntervalIndex reservationIntervalIndex;
+    private final DashboardStats dashboardStats;
+    private final DailyRollupService dailyRollupService;
+    // Catalog reads are served from this snapshot; every car write republishes it after commit.
+    private final CarCatalog carCatalog = new CarCatalog(this::carChanged, this::activeReservations);
+    // Search totals per normalized filter, keyed by the catalog version they were counted at
+    private final Map<CarSearchKey, Long> searchCounts = new ConcurrentHashMap<>();
+
+    // Only normalize local files, not cloud URLs
+    public static String normalizeImageUrl(String imageUrl) {
+        if (imageUrl != null && !imageUrl.startsWith("/cars/") && !imageUrl.startsWith("http")) {
+            return "/cars/" + imageUrl;
+        }
+        return imageUrl;
+    }
+
+    // Catalog listener; only called once a car changes, long after the constructor has set the fields
+    private void carChanged(Car before, Car after) {
+        dashboardStats.carChanged(before, after);
+    }
+
+    // Catalog reservation source, read through the same late-bound field access as carChanged
+    private List<Reservation> activeReservations(Long carId) {
+        return reservationIntervalIndex.activeReservations(carId);
+    }
+
+    @PostConstruct
+    void followReservations() {
+        reservationIntervalIndex.onCarChanged(carCatalog::reservationsChanged);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmCatalog() {
+        reloadCatalog();
+    }
+
+    // Re-reads cars changed by bulk UPDATEs that bypass the entity writes below
+    public void refreshCatalog(Collection<Long> carIds) {
+        List<Long> ids = List.copyOf(carIds);
+        AfterCommit.run(() -> carRepository.findAllById(ids).forEach(carCatalog::upsert));
+    }
+
+    private CarCatalog.Snapshot catalog() {
+        CarCatalog.Snapshot snapshot = carCatalog.current();
+        return snapshot != null ? snapshot : reloadCatalog();
+    }
+
+    private int[] searchText(String make, String model) {
+        // The text indexes are filled by the first catalog load
+        catalog();
+        return carCatalog.searchText(make, model);
+    }
+
+    private CarCatalog.Snapshot reloadCatalog() {
+        while (true) {
+            long writes = carCatalog.writes();
+            CarCatalog.Snapshot snapshot = carCatalog.replaceAll(carRepository.findAll(), writes);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+    }
 
     @Transactional
     public Car createCar(Car car) {
@@ -38,11 +117,31 @@ public class CarService {
         if (car.getPricePerDay().compareTo(BigDecimal.ZERO) <= 0) {
             throw new RuntimeException("Price per day must be greater than zero");
         }
-        return carRepository.save(car);
+        // Row versions are managed by Hibernate, never taken from the client
+        car.setVersion(null);
+        Car savedCar = carRepository.save(car);
+        AfterCommit.run(() -> carCatalog.upsert(savedCar));
+        return savedCar;
     }
 
     public List<Car> getAllCars() {
-        return carRepository.findAll();
+        return catalog().all();
+    }
+
+    CarColumns catalogColumns() {
+        return catalog().columns();
+    }
+
+    // Version and publish time of the current catalog snapshot, for conditional GETs
+    public CatalogVersion getCatalogVersion() {
+        CarCatalog.Snapshot snapshot = catalog();
+        return new CatalogVersion(snapshot.version(), snapshot.lastModified());
+    }
+
+    // Row version of a car as last published to the catalog, or null if the catalog does not have it
+    public Long getCatalogCarVersion(Long id) {
+        Car car = catalog().get(id);
+        return car != null ? car.getVersion() : null;
     }
 
     public Car getCarById(Long id) {
@@ -50,20 +149,25 @@ public class CarService {
                 .orElseThrow(() -> new RuntimeException("Car not found with id: " + id));
     }
 
+    public Map<Long, Car> getCarsByIds(Collection<Long> ids) {
+        return carRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+    }
+
     public List<Car> getAvailableCars() {
-        return carRepository.findByIsAvailable(true);
+        return catalog().available();
     }
 
     public List<Car> getCarsByMake(String make) {
-        return carRepository.findByMakeIgnoreCase(make);
+        return catalog().byMake(make);
     }
 
     public List<Car> getCarsByYearRange(Integer startYear, Integer endYear) {
-        return carRepository.findByYearBetween(startYear, endYear);
+        return catalog().byYearRange(startYear, endYear);
     }
 
     public List<Car> getCarsByMaxPrice(BigDecimal maxPrice) {
-        return carRepository.findByPricePerDayLessThanEqual(maxPrice);
+        return catalog().byMaxPrice(maxPrice);
     }
 
     @Transactional
@@ -81,67 +185,180 @@ public class CarService {
         car.setImageUrl(carDetails.getImageUrl());
         car.setIsAvailable(carDetails.getIsAvailable());
         
-        return carRepository.save(car);
+        Car savedCar = carRepository.save(car);
+        AfterCommit.run(() -> carCatalog.upsert(savedCar));
+        return savedCar;
     }
 
     @Transactional
     public void deleteCar(Long id) {
-        if (!carRepository.existsById(id)) {
-            throw new RuntimeException("Car not found with id: " + id);
+        Car car = getCarById(id);
+        // Reservations are removed with the car by the cascade
+        for (Reservation reservation : car.getReservations()) {
+            dashboardStats.reservationChanged(reservation.getStatus(), null, reservation.getTotalPrice());
         }
-        carRepository.deleteById(id);
+        dailyRollupService.removeCar(id);
+        carRepository.delete(car);
+        AfterCommit.run(() -> carCatalog.remove(id));
     }
 
     @Transactional
     public Car updateCarAvailability(Long id, Boolean isAvailable) {
         Car car = getCarById(id);
         car.setIsAvailable(isAvailable);
-        return carRepository.save(car);
+        Car savedCar = carRepository.save(car);
+        AfterCommit.run(() -> carCatalog.upsert(savedCar));
+        return savedCar;
     }
 
+    // Maintained in memory from car and reservation transitions; see DashboardStats
     public CarStatsDTO getCarStats() {
-        long totalCars = carRepository.count();
-        long availableCars = carRepository.countByIsAvailableTrue();
-        
-        // Get active reservations (current date between startDate and endDate)
-        long activeReservations = reservationRepository
-            .countActiveReservations(ReservationStatus.CONFIRMED);
-        
-        // Calculate average price
-        BigDecimal averagePrice = carRepository.findAveragePricePerDay();
-        
-        // Get pending reservations
-        long pendingReservations = carRepository.countPendingReservations();
-        
-        // Calculate total revenue from completed reservations
-        BigDecimal totalRevenue = carRepository.calculateTotalRevenue();
+        return dashboardStats.getStats();
+    }
+
+    public CarSearchPage filterCars(CarFilterDTO filter, Pageable pageable) {
+        LongPredicate bookedInRange = bookedInRange(filter);
+        CarColumns columns = catalog().columns();
+        CarColumns.Evaluation evaluation = evaluate(columns, filter, bookedInRange);
+        CarFacetsDTO facets = evaluation.facets();
+        if (CarColumns.supportsSort(filter.getSortBy())) {
+            BitSet selection = evaluation.selection();
+            List<Car> cars = columns.page(selection, filter.getSortBy(), isDescending(filter),
+                pageable.getOffset(), pageable.getPageSize());
+            return new CarSearchPage(cars, pageable, selection.cardinality(), facets);
+        }
 
-        return new CarStatsDTO(
-            totalCars,
-            availableCars,
-            activeReservations,
-            averagePrice,
-            pendingReservations,
-            totalRevenue
-        );
+        List<Car> cars = fetchFilteredCars(filter, pageable, pageable.getPageSize());
+        return new CarSearchPage(cars, pageable, countFilteredCars(filter), facets);
     }
 
-     public Page<Car> filterCars(CarFilterDTO filter, Pageable pageable) {
+    // Infinite-scroll variant: reports whether a next page exists instead of a total
+    public CarSearchSlice filterCarsSlice(CarFilterDTO filter, Pageable pageable) {
+        LongPredicate bookedInRange = bookedInRange(filter);
+        CarColumns columns = catalog().columns();
+        CarColumns.Evaluation evaluation = evaluate(columns, filter, bookedInRange);
+        CarFacetsDTO facets = evaluation.facets();
+        if (CarColumns.supportsSort(filter.getSortBy())) {
+            BitSet selection = evaluation.selection();
+            List<Car> cars = columns.page(selection, filter.getSortBy(), isDescending(filter),
+                pageable.getOffset(), pageable.getPageSize());
+            boolean hasNext = pageable.getOffset() + cars.size() < selection.cardinality();
+            return new CarSearchSlice(cars, pageable, hasNext, facets);
+        }
+
+        // Fetch one extra row to detect a next page without counting
+        List<Car> cars = new ArrayList<>(fetchFilteredCars(filter, pageable, pageable.getPageSize() + 1));
+        boolean hasNext = cars.size() > pageable.getPageSize();
+        if (hasNext) {
+            cars.remove(cars.size() - 1);
+        }
+        return new CarSearchSlice(cars, pageable, hasNext, facets);
+    }
+
+    // Make and model are matched through the trigram indexes, never by rescanning the column dictionaries
+    private CarColumns.Evaluation evaluate(CarColumns columns, CarFilterDTO filter, LongPredicate bookedInRange) {
+        String make = filter.getMake() != null && !filter.getMake().isEmpty() ? filter.getMake() : null;
+        String model = filter.getModel() != null && !filter.getModel().isEmpty() ? filter.getModel() : null;
+        return columns.evaluate(filter,
+                make != null ? searchText(make, null) : null,
+                model != null ? searchText(null, model) : null,
+                bookedInRange);
+    }
+
+    // Cars booked in the requested range come from the reservation interval index; null without a range
+    private LongPredicate bookedInRange(CarFilterDTO filter) {
+        if (filter.getStartDate() == null && filter.getEndDate() == null) {
+            return null;
+        }
+        if (filter.getStartDate() == null || filter.getEndDate() == null) {
+            throw new RuntimeException("Both startDate and endDate are required for date range search");
+        }
+        if (filter.getEndDate().isBefore(filter.getStartDate())) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        LocalDateTime rangeStart = filter.getStartDate().atStartOfDay();
+        LocalDateTime rangeEnd = filter.getEndDate().atTime(LocalTime.MAX);
+        return carId -> reservationIntervalIndex.hasOverlap(carId, rangeStart, rangeEnd);
+    }
+
+    private static boolean isDescending(CarFilterDTO filter) {
+        return filter.getSortDirection() != null && filter.getSortDirection().equalsIgnoreCase("desc");
+    }
+
+    private List<Car> fetchFilteredCars(CarFilterDTO filter, Pageable pageable, int limit) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Car> query = cb.createQuery(Car.class);
         Root<Car> car = query.from(Car.class);
+        query.where(filterPredicates(cb, query, car, filter));
+        
+        // Add ordering
+        if (filter.getSortBy() != null) {
+            if (isDescending(filter)) {
+                query.orderBy(cb.desc(car.get(filter.getSortBy())));
+            } else {
+                query.orderBy(cb.asc(car.get(filter.getSortBy())));
+            }
+        }
 
-        List<Predicate> predicates = new ArrayList<>();
+        return entityManager.createQuery(query)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(limit)
+            .getResultList();
+    }
 
-        // Add filter conditions
-        if (filter.getMake() != null && !filter.getMake().isEmpty()) {
-            predicates.add(cb.like(cb.lower(car.get("make")), 
-                "%" + filter.getMake().toLowerCase() + "%"));
+    private long countFilteredCars(CarFilterDTO filter) {
+        // Date-range filters depend on reservations, which do not bump the catalog version
+        boolean cacheable = filter.getStartDate() == null && filter.getEndDate() == null;
+        CarSearchKey key = cacheable ? CarSearchKey.of(catalog().version(), filter) : null;
+        if (key != null) {
+            Long cached = searchCounts.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Car> car = countQuery.from(Car.class);
+        countQuery.select(cb.count(car)).where(filterPredicates(cb, countQuery, car, filter));
+        long total = entityManager.createQuery(countQuery).getSingleResult();
+
+        if (key != null) {
+            // Entries from older catalog versions are never hit again, so just start over when full
+            if (searchCounts.size() >= MAX_CACHED_COUNTS) {
+                searchCounts.clear();
+            }
+            searchCounts.put(key, total);
         }
+        return total;
+    }
+
+    private Predicate[] filterPredicates(CriteriaBuilder cb, AbstractQuery<?> query, Root<Car> car, CarFilterDTO filter) {
+        List<Predicate> predicates = new ArrayList<>();
 
-        if (filter.getModel() != null && !filter.getModel().isEmpty()) {
-            predicates.add(cb.like(cb.lower(car.get("model")), 
-                "%" + filter.getModel().toLowerCase() + "%"));
+        // Substring matches on make/model are resolved by the trigram index and pushed down as ids
+        String make = filter.getMake() != null && !filter.getMake().isEmpty() ? filter.getMake() : null;
+        String model = filter.getModel() != null && !filter.getModel().isEmpty() ? filter.getModel() : null;
+        int[] textMatches = make != null || model != null ? searchText(make, model) : null;
+        if (textMatches != null && textMatches.length == 0) {
+            predicates.add(cb.disjunction());
+        } else if (textMatches != null && textMatches.length <= MAX_ID_PREDICATE) {
+            List<Long> ids = new ArrayList<>(textMatches.length);
+            for (int id : textMatches) {
+                ids.add((long) id);
+            }
+            predicates.add(car.get("id").in(ids));
+        } else {
+            // Too broad to ship as an id list; let the database match the text
+            if (make != null) {
+                predicates.add(cb.like(cb.lower(car.get("make")), 
+                    "%" + make.toLowerCase() + "%"));
+            }
+
+            if (model != null) {
+                predicates.add(cb.like(cb.lower(car.get("model")), 
+                    "%" + model.toLowerCase() + "%"));
+            }
         }
 
         if (filter.getYear() != null) {
@@ -152,6 +369,10 @@ public class CarService {
             predicates.add(cb.equal(car.get("transmission"), filter.getTransmission()));
         }
 
+        if (filter.getDriveType() != null) {
+            predicates.add(cb.equal(car.get("driveType"), filter.getDriveType()));
+        }
+
         if (filter.getMinPrice() != null) {
             predicates.add(cb.greaterThanOrEqualTo(car.get("pricePerDay"), filter.getMinPrice()));
         }
@@ -165,35 +386,54 @@ public class CarService {
             predicates.add(cb.isTrue(car.get("isAvailable")));
         }
 
-        query.where(predicates.toArray(new Predicate[0]));
-        
-        // Add ordering
-        if (filter.getSortBy() != null) {
-            if (filter.getSortDirection() != null && filter.getSortDirection().equalsIgnoreCase("desc")) {
-                query.orderBy(cb.desc(car.get(filter.getSortBy())));
-            } else {
-                query.orderBy(cb.asc(car.get(filter.getSortBy())));
+        // Exclude cars booked in the requested date range with a single NOT EXISTS anti-join
+        if (filter.getStartDate() != null || filter.getEndDate() != null) {
+            if (filter.getStartDate() == null || filter.getEndDate() == null) {
+                throw new RuntimeException("Both startDate and endDate are required for date range search");
+            }
+            if (filter.getEndDate().isBefore(filter.getStartDate())) {
+                throw new RuntimeException("End date must not be before start date");
             }
+            LocalDateTime rangeStart = filter.getStartDate().atStartOfDay();
+            LocalDateTime rangeEnd = filter.getEndDate().atTime(LocalTime.MAX);
+
+            Subquery<Long> overlapping = query.subquery(Long.class);
+            Root<Reservation> reservation = overlapping.from(Reservation.class);
+            overlapping.select(reservation.get("id")).where(
+                cb.equal(reservation.get("car").get("id"), car.get("id")),
+                reservation.get("status").in(ReservationStatus.PENDING, ReservationStatus.CONFIRMED),
+                cb.lessThanOrEqualTo(reservation.get("startDate"), rangeEnd),
+                cb.greaterThanOrEqualTo(reservation.get("endDate"), rangeStart));
+            predicates.add(cb.not(cb.exists(overlapping)));
         }
 
-        return executePagedQuery(query, pageable);
+        return predicates.toArray(new Predicate[0]);
     }
 
-     private Page<Car> executePagedQuery(CriteriaQuery<Car> query, Pageable pageable) {
-        // Get total count
-        CriteriaQuery<Long> countQuery = entityManager.getCriteriaBuilder()
-            .createQuery(Long.class);
-        countQuery.select(entityManager.getCriteriaBuilder().count(
-            countQuery.from(Car.class)));
-        Long total = entityManager.createQuery(countQuery).getSingleResult();
+    public record CatalogVersion(long version, long lastModified) {
+    }
 
-        // Execute paged query
-        List<Car> cars = entityManager.createQuery(query)
-            .setFirstResult((int) pageable.getOffset())
-            .setMaxResults(pageable.getPageSize())
-            .getResultList();
+    // Normalized form of the count-relevant filter fields; sorting and paging do not change the total
+    private record CarSearchKey(long catalogVersion, String make, String model, Integer year,
+                                TransmissionType transmission, DriveType driveType, BigDecimal minPrice,
+                                BigDecimal maxPrice, boolean onlyAvailable) {
+
+        static CarSearchKey of(long catalogVersion, CarFilterDTO filter) {
+            return new CarSearchKey(
+                catalogVersion,
+                normalizeText(filter.getMake()),
+                normalizeText(filter.getModel()),
+                filter.getYear(),
+                filter.getTransmission(),
+                filter.getDriveType(),
+                filter.getMinPrice() != null ? filter.getMinPrice().stripTrailingZeros() : null,
+                filter.getMaxPrice() != null ? filter.getMaxPrice().stripTrailingZeros() : null,
+                Boolean.TRUE.equals(filter.getOnlyAvailable()));
+        }
 
-        return new PageImpl<>(cars, pageable, total);
+        private static String normalizeText(String value) {
+            return value == null || value.isEmpty() ? null : value.toLowerCase();
+        }
     }
 
     public List<Car> getCarsRentedByUser(Long userId) {
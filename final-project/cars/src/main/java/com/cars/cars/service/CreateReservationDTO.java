@@ -10,5 +10,6 @@ public class CreateReservationDTO {
     private Long userId;
     private LocalDateTime startDate;
     private LocalDateTime endDate;
+    // Ignored; reservations are priced on the server
     private BigDecimal totalPrice;
 }
\ No newline at end of file
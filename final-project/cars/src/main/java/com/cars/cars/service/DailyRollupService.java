@@ -0,0 +1,218 @@
+package com.cars.cars.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cars.cars.dto.RevenueBucketDTO;
+import com.cars.cars.model.Reservation;
+import com.cars.cars.model.ReservationStatus;
+import com.cars.cars.repository.DailyCarRollupRepository;
+import com.cars.cars.repository.ReservationRepository;
+import com.cars.cars.repository.ReservationTotal;
+import com.cars.cars.repository.RollupTotals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Maintains the daily_car_rollups table. Every reservation transition adds its delta to the
+ * (day, car) rows it covers inside the same transaction, so the rollups commit or roll back with
+ * the reservation itself. Analytics over a date range then read at most one row per car and day
+ * instead of scanning reservations.
+ */
+@Slf4j
+@Service
+public class DailyRollupService {
+    private static final int MAX_RANGE_DAYS = 3660;
+    private static final Set<String> GROUPINGS = Set.of("day", "week", "month", "car");
+
+    private static final String UPSERT = """
+            INSERT INTO daily_car_rollups (day, car_id, revenue, reserved_days, reservations)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (day, car_id) DO UPDATE SET
+                revenue = daily_car_rollups.revenue + EXCLUDED.revenue,
+                reserved_days = daily_car_rollups.reserved_days + EXCLUDED.reserved_days,
+                reservations = daily_car_rollups.reservations + EXCLUDED.reservations
+            """;
+
+    // Blocks concurrent upserts while the table is rebuilt, so no delta is applied twice or lost
+    private static final String LOCK_TABLE = "LOCK TABLE daily_car_rollups IN EXCLUSIVE MODE";
+
+    private final DailyCarRollupRepository rollupRepository;
+    private final ReservationRepository reservationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DailyRollupService(DailyCarRollupRepository rollupRepository, ReservationRepository reservationRepository,
+                              JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.reservationRepository = reservationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Backfills from existing reservations the first time the table is created
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute(LOCK_TABLE);
+                if (rollupRepository.count() > 0) {
+                    return;
+                }
+                Map<RollupKey, Delta> deltas = new TreeMap<>();
+                for (ReservationTotal reservation : reservationRepository.findTotalsByStatusIn(
+                        List.of(ReservationStatus.CONFIRMED, ReservationStatus.COMPLETED))) {
+                    long cents = reservation.getStatus() == ReservationStatus.COMPLETED
+                            ? CarColumns.toCents(reservation.getTotalPrice()) : 0;
+                    addDeltas(deltas, reservation.getCarId(), reservation.getStartDate(), reservation.getEndDate(),
+                            1, cents);
+                }
+                upsert(deltas);
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not backfill daily rollups", e);
+        }
+    }
+
+    // Call inside the transaction that changes the reservation; from is null on create, to is null on delete
+    public void record(Reservation reservation, ReservationStatus from, ReservationStatus to) {
+        int booked = (isBooked(to) ? 1 : 0) - (isBooked(from) ? 1 : 0);
+        int earned = (to == ReservationStatus.COMPLETED ? 1 : 0) - (from == ReservationStatus.COMPLETED ? 1 : 0);
+        if (booked == 0 && earned == 0) {
+            return;
+        }
+        long cents = CarColumns.toCents(reservation.getTotalPrice());
+        Map<RollupKey, Delta> deltas = new TreeMap<>();
+        addDeltas(deltas, reservation.getCar().getId(), reservation.getStartDate(), reservation.getEndDate(),
+                booked, earned * cents);
+        upsert(deltas);
+    }
+
+    // Bulk CONFIRMED -> COMPLETED transition; the days were already counted when the rows were confirmed
+    public void recordCompleted(List<ReservationTotal> completed) {
+        Map<RollupKey, Delta> deltas = new TreeMap<>();
+        for (ReservationTotal reservation : completed) {
+            long cents = CarColumns.toCents(reservation.getTotalPrice());
+            addDeltas(deltas, reservation.getCarId(), reservation.getStartDate(), reservation.getEndDate(), 0, cents);
+        }
+        upsert(deltas);
+    }
+
+    // The car's reservations are deleted with it, so its rollups go as well
+    public void removeCar(Long carId) {
+        rollupRepository.deleteByCarId(carId);
+    }
+
+    // Totals between two dates inclusive, grouped by day, week, month or car
+    public List<RevenueBucketDTO> getRevenue(LocalDate from, LocalDate to, String groupBy, Long carId) {
+        if (from == null || to == null) {
+            throw new RuntimeException("Both from and to are required");
+        }
+        if (to.isBefore(from)) {
+            throw new RuntimeException("to must not be before from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new RuntimeException("The range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        String grouping = groupBy == null ? "day" : groupBy.toLowerCase(Locale.ROOT);
+        if (!GROUPINGS.contains(grouping)) {
+            throw new RuntimeException("groupBy must be one of day, week, month or car");
+        }
+        if (grouping.equals("car")) {
+            List<RevenueBucketDTO> buckets = new ArrayList<>();
+            for (RollupTotals totals : rollupRepository.sumByCar(from, to, carId)) {
+                buckets.add(new RevenueBucketDTO(String.valueOf(totals.getCarId()),
+                        totals.getRevenue(), totals.getReservedDays(), totals.getReservations()));
+            }
+            return buckets;
+        }
+
+        // Weeks and months are folded from the daily sums, which come back ordered by day
+        Map<String, RevenueBucketDTO> buckets = new LinkedHashMap<>();
+        for (RollupTotals totals : rollupRepository.sumByDay(from, to, carId)) {
+            String key = switch (grouping) {
+                case "day" -> totals.getDay().toString();
+                case "week" -> String.format("%d-W%02d",
+                        totals.getDay().get(IsoFields.WEEK_BASED_YEAR), totals.getDay().get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+                default -> YearMonth.from(totals.getDay()).toString();
+            };
+            buckets.merge(key,
+                    new RevenueBucketDTO(key, totals.getRevenue(), totals.getReservedDays(), totals.getReservations()),
+                    (a, b) -> new RevenueBucketDTO(key, a.getRevenue().add(b.getRevenue()),
+                            a.getReservedDays() + b.getReservedDays(), a.getReservations() + b.getReservations()));
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    private static boolean isBooked(ReservationStatus status) {
+        return status == ReservationStatus.CONFIRMED || status == ReservationStatus.COMPLETED;
+    }
+
+    // Spreads the cents over the covered days, handing the remainder out one cent at a time from the
+    // first day; the magnitude is split so a later negative delta cancels the same per-day shares
+    private static void addDeltas(Map<RollupKey, Delta> deltas, Long carId, LocalDateTime start, LocalDateTime end,
+                                  int booked, long cents) {
+        LocalDate first = start.toLocalDate();
+        LocalDate last = end.toLocalDate();
+        long days = ChronoUnit.DAYS.between(first, last) + 1;
+        long sign = Long.signum(cents);
+        long share = Math.abs(cents) / days;
+        long remainder = Math.abs(cents) % days;
+        for (long i = 0; i < days; i++) {
+            LocalDate day = first.plusDays(i);
+            Delta delta = deltas.computeIfAbsent(new RollupKey(day, carId), k -> new Delta());
+            delta.cents += sign * (share + (i < remainder ? 1 : 0));
+            delta.reservedDays += booked;
+            if (i == 0) {
+                delta.reservations += booked;
+            }
+        }
+    }
+
+    // Rows are written in key order so concurrent transactions lock them in the same order
+    private void upsert(Map<RollupKey, Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rows.add(new Object[] {
+                key.day(), key.carId(), BigDecimal.valueOf(delta.cents, 2), delta.reservedDays, delta.reservations
+        }));
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+    }
+
+    private record RollupKey(LocalDate day, Long carId) implements Comparable<RollupKey> {
+        private static final Comparator<RollupKey> ORDER =
+                Comparator.comparing(RollupKey::day).thenComparing(RollupKey::carId);
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Delta {
+        private long cents;
+        private long reservedDays;
+        private long reservations;
+    }
+}
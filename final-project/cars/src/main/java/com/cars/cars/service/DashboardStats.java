@@ -0,0 +1,158 @@
+package com.cars.cars.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.cars.cars.dto.CarStatsDTO;
+import com.cars.cars.model.Car;
+import com.cars.cars.model.ReservationStatus;
+import com.cars.cars.repository.CarRepository;
+import com.cars.cars.repository.ReservationRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory figures behind /api/cars/stats. Car writes and reservation status transitions add
+ * their deltas after commit, money is kept as exact long cents, and a background job reconciles
+ * every figure against the database so missed or bulk transitions cannot drift for long.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardStats {
+    private final CarRepository carRepository;
+    private final ReservationRepository reservationRepository;
+
+    private final LongAdder totalCars = new LongAdder();
+    private final LongAdder availableCars = new LongAdder();
+    private final LongAdder priceCents = new LongAdder();
+    private final LongAdder pendingReservations = new LongAdder();
+    private final LongAdder confirmedReservations = new LongAdder();
+    private final LongAdder revenueCents = new LongAdder();
+    // Drift seen by the previous reconciliation, per figure
+    private final long[] lastDrift = new long[6];
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        load();
+    }
+
+    public CarStatsDTO getStats() {
+        if (!loaded) {
+            load();
+        }
+        long cars = totalCars.sum();
+        BigDecimal averagePrice = cars == 0 ? null
+                : BigDecimal.valueOf(priceCents.sum(), 2).divide(BigDecimal.valueOf(cars), 2, RoundingMode.HALF_UP);
+        return new CarStatsDTO(
+                cars,
+                availableCars.sum(),
+                confirmedReservations.sum(),
+                averagePrice,
+                pendingReservations.sum(),
+                BigDecimal.valueOf(revenueCents.sum(), 2)
+        );
+    }
+
+    // Catalog change of one car; before is null for a new car and after is null for a deleted one
+    void carChanged(Car before, Car after) {
+        if (before != null) {
+            totalCars.decrement();
+            if (Boolean.TRUE.equals(before.getIsAvailable())) {
+                availableCars.decrement();
+            }
+            priceCents.add(-CarColumns.toCents(before.getPricePerDay()));
+        }
+        if (after != null) {
+            totalCars.increment();
+            if (Boolean.TRUE.equals(after.getIsAvailable())) {
+                availableCars.increment();
+            }
+            priceCents.add(CarColumns.toCents(after.getPricePerDay()));
+        }
+    }
+
+    // One reservation moving between statuses; from is null when created and to is null when deleted
+    public void reservationChanged(ReservationStatus from, ReservationStatus to, BigDecimal totalPrice) {
+        reservationsMoved(from, to, 1, totalPrice != null ? CarColumns.toCents(totalPrice) : 0);
+    }
+
+    // Applies a bulk transition of count reservations whose prices add up to totalCents
+    public void reservationsMoved(ReservationStatus from, ReservationStatus to, long count, long totalCents) {
+        if (from == to || count == 0) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            apply(from, -count, -totalCents);
+            apply(to, count, totalCents);
+        });
+    }
+
+    // A drift is only corrected once two passes in a row agree on it, so transitions that were
+    // committed but not yet applied while the queries ran are not counted twice
+    @Scheduled(initialDelay = 60_000, fixedDelay = 60_000)
+    public synchronized void reconcile() {
+        if (!loaded) {
+            load();
+            return;
+        }
+        long[] actual = query();
+        LongAdder[] figures = figures();
+        for (int i = 0; i < figures.length; i++) {
+            long drift = actual[i] - figures[i].sum();
+            if (drift != 0 && drift == lastDrift[i]) {
+                log.warn("Correcting dashboard stat {} by {}", i, drift);
+                figures[i].add(drift);
+                drift = 0;
+            }
+            lastDrift[i] = drift;
+        }
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        long[] actual = query();
+        LongAdder[] figures = figures();
+        for (int i = 0; i < figures.length; i++) {
+            // A delta applied while the queries ran may be counted twice; reconcile() corrects it
+            figures[i].add(actual[i] - figures[i].sum());
+        }
+        loaded = true;
+    }
+
+    private void apply(ReservationStatus status, long count, long cents) {
+        if (status == ReservationStatus.PENDING) {
+            pendingReservations.add(count);
+        } else if (status == ReservationStatus.CONFIRMED) {
+            confirmedReservations.add(count);
+        } else if (status == ReservationStatus.COMPLETED) {
+            revenueCents.add(cents);
+        }
+    }
+
+    private LongAdder[] figures() {
+        return new LongAdder[] {
+                totalCars, availableCars, priceCents, pendingReservations, confirmedReservations, revenueCents
+        };
+    }
+
+    private long[] query() {
+        return new long[] {
+                carRepository.count(),
+                carRepository.countByIsAvailableTrue(),
+                CarColumns.toCents(carRepository.sumPricePerDay()),
+                carRepository.countPendingReservations(),
+                reservationRepository.countActiveReservations(ReservationStatus.CONFIRMED),
+                CarColumns.toCents(carRepository.calculateTotalRevenue())
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package com.cars.cars.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: deadlines are hashed into a fixed ring of buckets by tick, so
+ * scheduling is O(1) and each advance only inspects the buckets of the elapsed ticks.
+ * Deadlines further away than one revolution simply stay in their bucket until their tick comes round.
+ */
+final class HashedTimingWheel<T> {
+    private final long tickMillis;
+    private final List<List<Timeout<T>>> buckets;
+    // Next tick that has not been processed yet
+    private long currentTick;
+
+    HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    // Rounded up so an item never fires before its deadline; overdue items fire on the next advance
+    synchronized void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick);
+        bucketFor(tick).add(new Timeout<>(item, tick));
+    }
+
+    synchronized List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        if (targetTick < currentTick) {
+            return expired;
+        }
+
+        // After a long pause every bucket is visited once instead of once per missed tick
+        long ticks = Math.min(targetTick - currentTick + 1, buckets.size());
+        for (long tick = currentTick; tick < currentTick + ticks; tick++) {
+            Iterator<Timeout<T>> iterator = bucketFor(tick).iterator();
+            while (iterator.hasNext()) {
+                Timeout<T> timeout = iterator.next();
+                if (timeout.tick() <= targetTick) {
+                    expired.add(timeout.item());
+                    iterator.remove();
+                }
+            }
+        }
+        currentTick = targetTick + 1;
+        return expired;
+    }
+
+    synchronized int size() {
+        int size = 0;
+        for (List<Timeout<T>> bucket : buckets) {
+            size += bucket.size();
+        }
+        return size;
+    }
+
+    private List<Timeout<T>> bucketFor(long tick) {
+        return buckets.get((int) Math.floorMod(tick, (long) buckets.size()));
+    }
+
+    private record Timeout<T>(T item, long tick) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.cars.cars.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes list endpoints as an ApiResponse envelope whose data array is streamed element by element
+ * with a JsonGenerator, so the full list is never held in memory. Database rows are pulled through a
+ * Spring Data Stream inside a read-only transaction, and the persistence context is cleared every
+ * few hundred rows to keep heap usage flat. The query runs before the envelope is written, so it can
+ * still fail with a normal error response; a failure after that leaves the JSON unterminated rather
+ * than closing it into a response that looks complete.
+ */
+@Component
+public class JsonStreamWriter {
+    private static final int CLEAR_INTERVAL = 500;
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public JsonStreamWriter(ObjectMapper objectMapper, EntityManager entityManager,
+                            PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Streams items that are already in memory, without opening a transaction
+    public void write(HttpServletResponse response, String message, Iterator<?> items) throws IOException {
+        try (JsonGenerator generator = start(response, message)) {
+            while (items.hasNext()) {
+                objectMapper.writeValue(generator, items.next());
+            }
+            finish(generator);
+        }
+    }
+
+    public <T> void writeFromDatabase(HttpServletResponse response, String message,
+                                      Supplier<Stream<T>> query, Function<? super T, ?> mapper) throws IOException {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<T> rows = query.get()) {
+                Iterator<T> iterator = rows.iterator();
+                // Asking for the first row executes the query before the response is committed
+                iterator.hasNext();
+                try (JsonGenerator generator = start(response, message)) {
+                    int written = 0;
+                    while (iterator.hasNext()) {
+                        objectMapper.writeValue(generator, mapper.apply(iterator.next()));
+                        if (++written % CLEAR_INTERVAL == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                    finish(generator);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private JsonGenerator start(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        // Rows are flushed by the generator's buffer, not after every element
+        generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        // Only finish() closes the envelope; closing after a failure must not make it look complete
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        generator.writeStartObject();
+        generator.writeBooleanField("success", true);
+        generator.writeStringField("message", message);
+        generator.writeArrayFieldStart("data");
+        return generator;
+    }
+
+    private void finish(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
@@ -1,5 +1,6 @@
 package com.cars.cars.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.cars.cars.model.Notification;
 import com.cars.cars.model.User;
 import com.cars.cars.repository.NotificationRepository;
+import com.cars.cars.repository.UnreadCount;
 
 import lombok.RequiredArgsConstructor;
 
@@ -20,8 +22,11 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 @Transactional
 public class NotificationService {
+    private static final int MAX_BATCH_SIZE = 1000;
 
     private final NotificationRepository notificationRepository;
+    private final NotificationStream notificationStream;
+    private final UnreadCounters unreadCounters;
 
     public List<Notification> getUserNotifications(User user) {
         System.out.println("Getting notifications for user: " + user.getEmail() + ", Role: " + user.getRole());
@@ -44,7 +49,7 @@ public class NotificationService {
     }
 
     public long getAdminUnreadCount() {
-        return notificationRepository.countByReadFalse();
+        return unreadCounters.global();
     }
 
 
@@ -56,6 +61,14 @@ public class NotificationService {
                                            Notification.NotificationType type,
                                            Long relatedEntityId, String relatedEntityType,
                                            String metadata) {
+        return saveNotification(buildNotification(user, title, message, type,
+                relatedEntityId, relatedEntityType, metadata));
+    }
+
+    private Notification buildNotification(User user, String title, String message,
+                                           Notification.NotificationType type,
+                                           Long relatedEntityId, String relatedEntityType,
+                                           String metadata) {
         Notification notification = new Notification();
         notification.setUser(user);
         notification.setTitle(title);
@@ -66,7 +79,7 @@ public class NotificationService {
         notification.setRelatedEntityId(relatedEntityId);
         notification.setRelatedEntityType(relatedEntityType);
         notification.setMetadata(metadata);
-        return notificationRepository.save(notification);
+        return notification;
     }
 
     // Helper methods for common notification types
@@ -80,6 +93,11 @@ public class NotificationService {
 
     public Notification createReservationNotification(User user, Long reservationId,
                                                       String action, String details) {
+        return saveNotification(buildReservationNotification(user, reservationId, action, details));
+    }
+
+    Notification buildReservationNotification(User user, Long reservationId,
+                                              String action, String details) {
         String title = "Reservation " + action;
         String message = "Reservation #" + reservationId + " has been " + action + ". " + details;
         Notification.NotificationType type = action.equals("created") ?
@@ -87,12 +105,17 @@ public class NotificationService {
                 action.equals("updated") ? Notification.NotificationType.RESERVATION_UPDATED :
                         Notification.NotificationType.RESERVATION_CANCELLED;
 
-        return createNotification(user, title, message, type,
+        return buildNotification(user, title, message, type,
                 reservationId, "reservation", details);
     }
 
     public Notification createPaymentNotification(User user, Long paymentId,
                                                   boolean success, String details) {
+        return saveNotification(buildPaymentNotification(user, paymentId, success, details));
+    }
+
+    Notification buildPaymentNotification(User user, Long paymentId,
+                                          boolean success, String details) {
         String title = "Payment " + (success ? "Completed" : "Failed");
         String message = "Payment for reservation #" + paymentId + " has " +
                 (success ? "been completed successfully." : "failed. " + details);
@@ -100,29 +123,99 @@ public class NotificationService {
                 Notification.NotificationType.PAYMENT_COMPLETED :
                 Notification.NotificationType.PAYMENT_FAILED;
 
-        return createNotification(user, title, message, type,
+        return buildNotification(user, title, message, type,
                 paymentId, "payment", details);
     }
 
+    List<Notification> saveNotifications(List<Notification> notifications) {
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        saved.stream().filter(n -> !n.isRead()).forEach(n -> unreadCounters.adjust(n.getUser().getId(), 1));
+        notificationStream.publish(saved);
+        return saved;
+    }
+
+    private Notification saveNotification(Notification notification) {
+        Notification saved = notificationRepository.save(notification);
+        if (!saved.isRead()) {
+            unreadCounters.adjust(saved.getUser().getId(), 1);
+        }
+        notificationStream.publish(List.of(saved));
+        return saved;
+    }
+
     public void markAsRead(Long notificationId) {
         Optional<Notification> notifOpt = notificationRepository.findById(notificationId);
         notifOpt.ifPresent(n -> {
+            if (!n.isRead()) {
+                unreadCounters.adjust(n.getUser().getId(), -1);
+            }
             n.setRead(true);
             notificationRepository.save(n);
         });
     }
 
     public void markAllAsRead(User user) {
-        List<Notification> notifications = notificationRepository.findByUserOrderByCreatedAtDesc(user);
-        notifications.forEach(n -> n.setRead(true));
-        notificationRepository.saveAll(notifications);
+        // One UPDATE however many notifications the user has
+        int updated = notificationRepository.markAllAsReadByUserId(user.getId());
+        unreadCounters.adjust(user.getId(), -updated);
     }
 
     public void deleteNotification(Long notificationId) {
-        notificationRepository.deleteById(notificationId);
+        notificationRepository.findById(notificationId).ifPresent(n -> {
+            if (!n.isRead()) {
+                unreadCounters.adjust(n.getUser().getId(), -1);
+            }
+            notificationRepository.delete(n);
+        });
+    }
+
+    public void deleteByUserId(Long userId) {
+        long unread = notificationRepository.countByUserIdAndReadFalse(userId);
+        notificationRepository.deleteByUserId(userId);
+        unreadCounters.removeUser(userId, unread);
+    }
+
+    // Marks the given notifications read in one statement; users can only touch their own
+    public int markAsRead(User user, Collection<Long> notificationIds) {
+        Long scope = batchScope(user, notificationIds);
+        if (scope != null) {
+            int updated = notificationRepository.markAsReadByIdIn(notificationIds, scope);
+            unreadCounters.adjust(scope, -updated);
+            return updated;
+        }
+        // Admins may span users, so the per-user unread counts are read before the update
+        List<UnreadCount> unread = notificationRepository.countUnreadByUserAndIdIn(notificationIds, null);
+        int updated = notificationRepository.markAsReadByIdIn(notificationIds, null);
+        unread.forEach(count -> unreadCounters.adjust(count.getUserId(), -count.getUnread()));
+        return updated;
+    }
+
+    // Deletes the given notifications in one statement; users can only touch their own
+    public int deleteNotifications(User user, Collection<Long> notificationIds) {
+        Long scope = batchScope(user, notificationIds);
+        List<UnreadCount> unread = notificationRepository.countUnreadByUserAndIdIn(notificationIds, scope);
+        int deleted = notificationRepository.deleteByIdIn(notificationIds, scope);
+        unread.forEach(count -> unreadCounters.adjust(count.getUserId(), -count.getUnread()));
+        return deleted;
+    }
+
+    private Long batchScope(User user, Collection<Long> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            throw new RuntimeException("At least one notification id is required");
+        }
+        if (notificationIds.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("A batch cannot contain more than " + MAX_BATCH_SIZE + " notifications");
+        }
+        return user.getRole() == Role.ADMIN ? null : user.getId();
+    }
+
+    public void clearAll() {
+        // A single DELETE statement rather than loading and removing every row
+        notificationRepository.deleteAllInBatch();
+        unreadCounters.clearAll();
     }
 
     public long getUnreadCount(User user) {
-        return notificationRepository.countByUserAndReadFalse(user);
+        return unreadCounters.forUser(user.getId());
     }
 }
\ No newline at end of file
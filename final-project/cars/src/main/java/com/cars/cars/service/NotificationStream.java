@@ -0,0 +1,237 @@
+package com.cars.cars.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.cars.cars.model.Notification;
+import com.cars.cars.model.Role;
+import com.cars.cars.model.User;
+import com.cars.cars.repository.NotificationRepository;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes new notifications to connected clients over Server-Sent Events, keyed by user id; admins
+ * receive every notification, as they do when listing. Each connection has a bounded queue that
+ * drops its oldest entries when the client falls behind and then tells it how many were lost.
+ * Event ids are notification ids, so a reconnecting client resumes from Last-Event-ID.
+ */
+@Component
+public class NotificationStream {
+    private static final int QUEUE_CAPACITY = 256;
+    private static final int MAX_REPLAY = 256;
+    private static final long EMITTER_TIMEOUT_MILLIS = 30 * 60_000;
+    private static final int SENDER_THREADS = 4;
+
+    private final NotificationRepository notificationRepository;
+    private final Map<Long, Set<Subscription>> subscriptionsByUser = new ConcurrentHashMap<>();
+    private final Set<Subscription> adminSubscriptions = ConcurrentHashMap.newKeySet();
+    // A slow client only ever holds one sender thread, since each connection drains one event at a time
+    private final ExecutorService senders = Executors.newFixedThreadPool(SENDER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "notification-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NotificationStream(NotificationRepository notificationRepository) {
+        this.notificationRepository = notificationRepository;
+    }
+
+    // Replays what was missed after lastEventId, if given, before switching to live delivery
+    public SseEmitter subscribe(User user, Long lastEventId) {
+        boolean admin = user.getRole() == Role.ADMIN;
+        Subscription subscription = new Subscription(new SseEmitter(EMITTER_TIMEOUT_MILLIS), user.getId(), admin);
+        subscription.emitter.onCompletion(subscription::close);
+        subscription.emitter.onTimeout(subscription::close);
+        subscription.emitter.onError(e -> subscription.close());
+        // Registered first so nothing committed during the replay is lost; duplicates are skipped
+        if (admin) {
+            adminSubscriptions.add(subscription);
+        } else {
+            // Added inside compute so a concurrent close() cannot drop the set from under it
+            subscriptionsByUser.compute(user.getId(), (id, subscriptions) -> {
+                Set<Subscription> set = subscriptions != null ? subscriptions : ConcurrentHashMap.newKeySet();
+                set.add(subscription);
+                return set;
+            });
+        }
+
+        if (lastEventId != null) {
+            PageRequest page = PageRequest.of(0, MAX_REPLAY + 1);
+            List<Notification> missed = admin
+                    ? notificationRepository.findByIdGreaterThanOrderByIdAsc(lastEventId, page)
+                    : notificationRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(user.getId(), lastEventId, page);
+            subscription.replay(missed.subList(0, Math.min(missed.size(), MAX_REPLAY)),
+                    Math.max(0, missed.size() - MAX_REPLAY));
+        }
+        subscription.startLive();
+        return subscription.emitter;
+    }
+
+    // Hands notifications to their subscribers once the surrounding transaction commits
+    void publish(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        List<Notification> committed = List.copyOf(notifications);
+        AfterCommit.run(() -> {
+            for (Notification notification : committed) {
+                Set<Subscription> subscriptions = subscriptionsByUser.get(notification.getUser().getId());
+                if (subscriptions != null) {
+                    subscriptions.forEach(subscription -> subscription.offer(notification));
+                }
+                adminSubscriptions.forEach(subscription -> subscription.offer(notification));
+            }
+        });
+    }
+
+    // Keeps proxies from closing idle connections
+    @Scheduled(fixedRate = 20_000)
+    public void heartbeat() {
+        subscriptionsByUser.values().forEach(subscriptions -> subscriptions.forEach(Subscription::heartbeat));
+        adminSubscriptions.forEach(Subscription::heartbeat);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private final class Subscription {
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final boolean admin;
+        private final ArrayDeque<Notification> queue = new ArrayDeque<>();
+        private Set<Long> replayed = Set.of();
+        private long dropped;
+        private boolean heartbeatDue;
+        // True while a sender (or the replay) owns the emitter
+        private boolean draining = true;
+        private boolean closed;
+
+        Subscription(SseEmitter emitter, Long userId, boolean admin) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.admin = admin;
+        }
+
+        // Runs on the subscribing thread before any sender touches the emitter
+        void replay(List<Notification> missed, long truncated) {
+            Set<Long> ids = new HashSet<>();
+            try {
+                if (truncated > 0) {
+                    emitter.send(SseEmitter.event().name("overflow").data(truncated));
+                }
+                for (Notification notification : missed) {
+                    send(notification);
+                    ids.add(notification.getId());
+                }
+            } catch (IOException | IllegalStateException e) {
+                fail(e);
+            }
+            replayed = ids;
+        }
+
+        synchronized void startLive() {
+            draining = false;
+            scheduleLocked();
+        }
+
+        synchronized void offer(Notification notification) {
+            if (closed) {
+                return;
+            }
+            if (queue.size() == QUEUE_CAPACITY) {
+                queue.pollFirst();
+                dropped++;
+            }
+            queue.addLast(notification);
+            scheduleLocked();
+        }
+
+        synchronized void heartbeat() {
+            heartbeatDue = true;
+            scheduleLocked();
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+                queue.clear();
+            }
+            if (admin) {
+                adminSubscriptions.remove(this);
+            } else {
+                subscriptionsByUser.computeIfPresent(userId, (id, subscriptions) -> {
+                    subscriptions.remove(this);
+                    return subscriptions.isEmpty() ? null : subscriptions;
+                });
+            }
+        }
+
+        private void scheduleLocked() {
+            boolean pending = !queue.isEmpty() || dropped > 0 || heartbeatDue;
+            if (!draining && !closed && pending) {
+                draining = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Notification next;
+                long lost;
+                boolean beat;
+                synchronized (this) {
+                    if (closed || (queue.isEmpty() && dropped == 0 && !heartbeatDue)) {
+                        draining = false;
+                        return;
+                    }
+                    next = queue.pollFirst();
+                    lost = dropped;
+                    dropped = 0;
+                    // Any event keeps the connection alive, so a heartbeat is only sent when idle
+                    beat = heartbeatDue && next == null;
+                    heartbeatDue = false;
+                }
+                try {
+                    if (lost > 0) {
+                        emitter.send(SseEmitter.event().name("overflow").data(lost));
+                    }
+                    if (next != null && !replayed.contains(next.getId())) {
+                        send(next);
+                    }
+                    if (beat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    fail(e);
+                    return;
+                }
+            }
+        }
+
+        private void send(Notification notification) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(notification.getId()))
+                    .name("notification")
+                    .data(notification));
+        }
+
+        private void fail(Exception e) {
+            close();
+            emitter.completeWithError(e);
+        }
+    }
+}
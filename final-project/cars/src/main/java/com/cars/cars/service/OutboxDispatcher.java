@@ -0,0 +1,143 @@
+package com.cars.cars.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cars.cars.model.Notification;
+import com.cars.cars.model.OutboxEvent;
+import com.cars.cars.model.User;
+import com.cars.cars.repository.NotificationRepository;
+import com.cars.cars.repository.OutboxEventRepository;
+import com.cars.cars.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Background consumer of the outbox. Each run locks a batch of pending events, turns them into
+ * notifications with one batched insert and marks them processed in the same transaction.
+ * Delivery is at-least-once; notifications carry their outbox event id so a redelivered event is skipped.
+ * Recipients are loaded up front, so an event whose user is gone is dropped on its own instead of
+ * failing the batch insert and stalling the queue behind it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxDispatcher {
+    private static final int BATCH_SIZE = 200;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+
+    @Scheduled(fixedDelay = 1000)
+    @Transactional
+    public void dispatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockNextBatch(BATCH_SIZE);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<Long> eventIds = new ArrayList<>(events.size());
+        events.forEach(event -> eventIds.add(event.getId()));
+        Set<Long> delivered = new HashSet<>(notificationRepository.findDeliveredOutboxEventIds(eventIds));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ParsedEvent> parsed = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (delivered.contains(event.getId())) {
+                event.setProcessedAt(now);
+                continue;
+            }
+            try {
+                ParsedEvent pending = parse(event);
+                if (pending.userId() == null) {
+                    throw new IllegalStateException("Payload has no user id");
+                }
+                parsed.add(pending);
+            } catch (Exception e) {
+                fail(event, now, e.getMessage());
+            }
+        }
+
+        Set<Long> userIds = parsed.stream().map(ParsedEvent::userId).collect(Collectors.toSet());
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Notification> notifications = new ArrayList<>();
+        for (ParsedEvent pending : parsed) {
+            OutboxEvent event = pending.event();
+            User user = users.get(pending.userId());
+            if (user == null) {
+                // Retrying cannot bring the user back
+                log.warn("Outbox event {} dropped: user {} no longer exists", event.getId(), pending.userId());
+                event.setProcessedAt(now);
+                continue;
+            }
+            try {
+                Notification notification = pending.build().apply(user);
+                notification.setOutboxEventId(event.getId());
+                notifications.add(notification);
+                event.setProcessedAt(now);
+            } catch (RuntimeException e) {
+                fail(event, now, e.getMessage());
+            }
+        }
+
+        if (!notifications.isEmpty()) {
+            notificationService.saveNotifications(notifications);
+        }
+    }
+
+    // Processed events are only kept for a week for troubleshooting
+    @Scheduled(cron = "0 0 3 * * *")
+    @Transactional
+    public void purgeProcessed() {
+        outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(7));
+    }
+
+    private void fail(OutboxEvent event, LocalDateTime now, String reason) {
+        event.setAttempts(event.getAttempts() + 1);
+        log.warn("Outbox event {} failed: {}", event.getId(), reason);
+        if (event.getAttempts() >= MAX_ATTEMPTS) {
+            // Give up on poison events so they do not block the queue
+            event.setProcessedAt(now);
+        }
+    }
+
+    private ParsedEvent parse(OutboxEvent event) throws Exception {
+        switch (event.getType()) {
+            case RESERVATION_NOTIFICATION: {
+                ReservationNotificationEvent payload =
+                        objectMapper.readValue(event.getPayload(), ReservationNotificationEvent.class);
+                return new ParsedEvent(event, payload.userId(), user -> notificationService.buildReservationNotification(
+                        user, payload.reservationId(), payload.action(), payload.details()));
+            }
+            case PAYMENT_NOTIFICATION: {
+                PaymentNotificationEvent payload =
+                        objectMapper.readValue(event.getPayload(), PaymentNotificationEvent.class);
+                return new ParsedEvent(event, payload.userId(), user -> notificationService.buildPaymentNotification(
+                        user, payload.paymentId(), payload.success(), payload.details()));
+            }
+            default:
+                throw new IllegalStateException("Unknown outbox event type: " + event.getType());
+        }
+    }
+
+    // An event whose payload has been read, waiting for its recipient to be loaded
+    private record ParsedEvent(OutboxEvent event, Long userId, Function<User, Notification> build) {
+    }
+}
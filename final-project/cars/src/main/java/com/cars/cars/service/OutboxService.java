@@ -0,0 +1,54 @@
+package com.cars.cars.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import com.cars.cars.model.OutboxEvent;
+import com.cars.cars.model.Reservation;
+import com.cars.cars.repository.OutboxEventRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records side effects as outbox rows inside the caller's transaction. The rows commit or
+ * roll back together with the business change and are delivered later by {@link OutboxDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public void enqueueReservationNotification(Reservation reservation, String action, String details) {
+        outboxEventRepository.save(toEvent(OutboxEvent.EventType.RESERVATION_NOTIFICATION,
+                new ReservationNotificationEvent(reservation.getUser().getId(), reservation.getId(), action, details)));
+    }
+
+    public void enqueueReservationNotifications(List<Reservation> reservations, String action, String details) {
+        List<OutboxEvent> events = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            events.add(toEvent(OutboxEvent.EventType.RESERVATION_NOTIFICATION,
+                    new ReservationNotificationEvent(reservation.getUser().getId(), reservation.getId(), action, details)));
+        }
+        outboxEventRepository.saveAll(events);
+    }
+
+    public void enqueuePaymentNotification(Long userId, Long paymentId, boolean success, String details) {
+        outboxEventRepository.save(toEvent(OutboxEvent.EventType.PAYMENT_NOTIFICATION,
+                new PaymentNotificationEvent(userId, paymentId, success, details)));
+    }
+
+    private OutboxEvent toEvent(OutboxEvent.EventType type, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setType(type);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize outbox payload: " + e.getMessage());
+        }
+        return event;
+    }
+}
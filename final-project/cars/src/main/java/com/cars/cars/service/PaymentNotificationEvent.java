@@ -0,0 +1,5 @@
+package com.cars.cars.service;
+
+// Outbox payload for a payment notification
+public record PaymentNotificationEvent(Long userId, Long paymentId, boolean success, String details) {
+}
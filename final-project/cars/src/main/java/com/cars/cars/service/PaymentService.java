@@ -15,17 +15,21 @@ import com.cars.cars.repository.PaymentRepository;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final ReservationService reservationService;
-    private final NotificationService notificationService;
+    private final OutboxService outboxService;
 
     @Transactional
     public PaymentDTO initiatePayment(Long reservationId) {
-        Reservation reservation = reservationService.getReservationById(reservationId);
+        Reservation reservation = reservationService.lockReservation(reservationId);
+        if (reservation.getStatus() == ReservationStatus.CANCELLED) {
+            throw new RuntimeException("Reservation has been cancelled or its hold has expired");
+        }
 
         // Check if payment already exists
         Optional<Payment> existingPayment = paymentRepository.findByReservationId(reservationId);
@@ -52,7 +56,11 @@ public class PaymentService {
             throw new RuntimeException("Transaction ID already exists");
         }
 
-        Reservation reservation = reservationService.getReservationById(dto.getReservationId());
+        // Locked so the hold cannot expire between this check and the confirmation below
+        Reservation reservation = reservationService.lockReservation(dto.getReservationId());
+        if (reservation.getStatus() == ReservationStatus.CANCELLED) {
+            throw new RuntimeException("Reservation has been cancelled or its hold has expired");
+        }
 
         if (dto.getAmount().compareTo(reservation.getTotalPrice()) != 0) {
             throw new RuntimeException("Payment amount does not match reservation total");
@@ -69,11 +77,11 @@ public class PaymentService {
         Payment savedPayment = paymentRepository.save(payment);
         reservationService.updateReservationStatus(reservation.getId(), ReservationStatus.CONFIRMED);
 
-        // Create notification
-        notificationService.createPaymentNotification(
-                payment.getReservation().getUser(),
-                payment.getId(),
-                true, // or false if failed
+        // Notification is delivered asynchronously from the outbox
+        outboxService.enqueuePaymentNotification(
+                reservation.getUser().getId(),
+                savedPayment.getId(),
+                true,
                 "Payment processed successfully"
         );
 
@@ -92,6 +100,11 @@ public class PaymentService {
         return PaymentDTO.fromEntity(payment);
     }
 
+    // Lazily pulls every payment with its reservation, user and car; consume inside a transaction
+    public Stream<Payment> streamAllPayments() {
+        return paymentRepository.streamAllWithDetails();
+    }
+
     public List<PaymentDTO> getAllPayments() {
         return paymentRepository.findAll().stream()
                 .map(PaymentDTO::fromEntity)
@@ -106,6 +119,10 @@ public class PaymentService {
         payment.setStatus(newStatus);
 
         if (newStatus == PaymentStatus.COMPLETED) {
+            Reservation reservation = reservationService.lockReservation(payment.getReservation().getId());
+            if (reservation.getStatus() == ReservationStatus.CANCELLED) {
+                throw new RuntimeException("Reservation has been cancelled or its hold has expired");
+            }
             reservationService.updateReservationStatus(
                     payment.getReservation().getId(),
                     ReservationStatus.CONFIRMED
@@ -0,0 +1,68 @@
+package com.cars.cars.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import com.cars.cars.dto.CarQuoteDTO;
+import com.cars.cars.dto.CarQuoteRequestDTO;
+import com.cars.cars.model.Car;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Server-side rental pricing. Quotes are computed in whole cents from the daily price column of
+ * the catalog snapshot, so a batch of quotes is a binary search and a multiplication per car;
+ * BigDecimal is only used to present the result. Bookings are priced here too, never by the client.
+ */
+@Service
+@RequiredArgsConstructor
+public class QuoteService {
+    private static final int MAX_QUOTE_CARS = 200;
+
+    private final CarService carService;
+
+    // Cars unknown to the catalog are left out of the result
+    public List<CarQuoteDTO> quote(CarQuoteRequestDTO request) {
+        if (request.getCarIds() == null || request.getCarIds().isEmpty()) {
+            throw new RuntimeException("At least one car id is required");
+        }
+        if (request.getCarIds().size() > MAX_QUOTE_CARS) {
+            throw new RuntimeException("Cannot quote more than " + MAX_QUOTE_CARS + " cars at once");
+        }
+        long days = rentalDays(request.getStartDate(), request.getEndDate());
+
+        CarColumns columns = carService.catalogColumns();
+        List<CarQuoteDTO> quotes = new ArrayList<>(request.getCarIds().size());
+        for (Long carId : request.getCarIds()) {
+            int row = carId != null ? columns.rowOf(carId) : -1;
+            if (row < 0) {
+                continue;
+            }
+            long dailyCents = columns.priceCents[row];
+            quotes.add(new CarQuoteDTO(carId, days, BigDecimal.valueOf(dailyCents, 2),
+                    BigDecimal.valueOf(Math.multiplyExact(dailyCents, days), 2)));
+        }
+        return quotes;
+    }
+
+    // Price of a booking, from the car row being booked rather than the snapshot
+    public BigDecimal priceFor(Car car, LocalDate startDate, LocalDate endDate) {
+        long days = rentalDays(startDate, endDate);
+        return BigDecimal.valueOf(Math.multiplyExact(CarColumns.toCents(car.getPricePerDay()), days), 2);
+    }
+
+    // Whole days between the two dates, matching what the booking form shows; a same-day rental counts as one
+    static long rentalDays(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new RuntimeException("Both startDate and endDate are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        return Math.max(1, ChronoUnit.DAYS.between(startDate, endDate));
+    }
+}
@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 
 import com.cars.cars.model.Reservation;
 import com.cars.cars.model.ReservationStatus;
+import com.cars.cars.repository.ReservationListItem;
 import com.fasterxml.jackson.annotation.JsonFormat;
 
 @Data
@@ -60,6 +61,25 @@ public class ReservationDTO {
         return dto;
     }
 
+    public static ReservationDTO fromListItem(ReservationListItem item) {
+        ReservationDTO dto = new ReservationDTO();
+        dto.setId(item.getId());
+        dto.setCarId(item.getCarId());
+        dto.setCarImageUrl(item.getCarImageUrl());
+        String make = item.getCarMake() != null ? item.getCarMake() : "";
+        String model = item.getCarModel() != null ? item.getCarModel() : "";
+        dto.setCarDetails(make + " " + model);
+        dto.setUserId(item.getUserId());
+        dto.setUserEmail(item.getUserEmail());
+        dto.setStartDate(item.getStartDate());
+        dto.setEndDate(item.getEndDate());
+        dto.setTotalPrice(item.getTotalPrice());
+        dto.setStatus(item.getStatus());
+        dto.setCreatedAt(item.getCreatedAt());
+        dto.setUpdatedAt(item.getUpdatedAt());
+        return dto;
+    }
+
     public String getCarImageUrl() { return carImageUrl; }
     public void setCarImageUrl(String carImageUrl) { this.carImageUrl = carImageUrl;}
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.cars.cars.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cars.cars.model.Reservation;
+import com.cars.cars.model.ReservationStatus;
+import com.cars.cars.repository.ReservationHold;
+import com.cars.cars.repository.ReservationInterval;
+import com.cars.cars.repository.ReservationRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases PENDING reservations that are not paid within the hold period. Deadlines live in an
+ * in-memory delay queue (rebuilt from the database at startup) and expired holds are cancelled
+ * with one bulk UPDATE per sweep; only rows still PENDING are touched, so paid holds are left alone.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReservationHoldExpiry {
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationIntervalIndex reservationIntervalIndex;
+    private final CarAvailabilityService carAvailabilityService;
+    private final DashboardStats dashboardStats;
+    private final DelayQueue<Hold> holds = new DelayQueue<>();
+    private final Set<Long> heldReservationIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${reservation.hold-minutes:15}")
+    private long holdMinutes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (ReservationHold hold : reservationRepository.findHoldsByStatus(ReservationStatus.PENDING)) {
+            hold(hold.getId(), hold.getCarId(), hold.getCreatedAt());
+        }
+    }
+
+    public void track(Reservation reservation) {
+        if (reservation.getStatus() != ReservationStatus.PENDING) {
+            return;
+        }
+        Long reservationId = reservation.getId();
+        Long carId = reservation.getCar().getId();
+        LocalDateTime createdAt = reservation.getCreatedAt();
+        AfterCommit.run(() -> hold(reservationId, carId, createdAt));
+    }
+
+    @Scheduled(fixedDelay = 30_000)
+    @Transactional
+    public void expireHolds() {
+        List<Hold> expired = new ArrayList<>();
+        holds.drainTo(expired, MAX_BATCH_SIZE);
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        List<Long> reservationIds = new ArrayList<>(expired.size());
+        for (Hold hold : expired) {
+            reservationIds.add(hold.reservationId());
+            heldReservationIds.remove(hold.reservationId());
+        }
+        try {
+            int cancelled = reservationRepository.cancelPendingReservations(
+                    reservationIds, LocalDateTime.now(), ReservationStatus.PENDING, ReservationStatus.CANCELLED);
+            // Cancelled reservations carry no revenue, so the count is all the stats need
+            dashboardStats.reservationsMoved(ReservationStatus.PENDING, ReservationStatus.CANCELLED, cancelled, 0);
+        } catch (RuntimeException e) {
+            // Put the holds back so the next sweep retries them
+            for (Hold hold : expired) {
+                heldReservationIds.add(hold.reservationId());
+                holds.add(hold);
+            }
+            throw e;
+        }
+
+        // Holds paid in the meantime are CONFIRMED and must stay indexed
+        for (ReservationInterval cancelled : reservationRepository.findIntervalsByIdInAndStatus(
+                reservationIds, ReservationStatus.CANCELLED)) {
+            reservationIntervalIndex.untrack(cancelled.getCarId(), cancelled.getId());
+            carAvailabilityService.untrack(cancelled.getCarId());
+        }
+    }
+
+    private void hold(Long reservationId, Long carId, LocalDateTime createdAt) {
+        if (heldReservationIds.add(reservationId)) {
+            LocalDateTime expiresAt = createdAt.plus(Duration.ofMinutes(holdMinutes));
+            holds.add(new Hold(reservationId, carId, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        }
+    }
+
+    private record Hold(Long reservationId, Long carId, long expiresAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((Hold) other).expiresAtMillis);
+        }
+    }
+}
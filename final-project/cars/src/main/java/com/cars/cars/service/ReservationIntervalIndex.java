@@ -0,0 +1,184 @@
+package com.cars.cars.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.cars.cars.model.Reservation;
+import com.cars.cars.model.ReservationStatus;
+import com.cars.cars.repository.ActiveReservation;
+import com.cars.cars.repository.ReservationRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory index of active (PENDING/CONFIRMED) reservation intervals per car.
+ * Overlap checks are answered from a sorted interval set instead of querying the database
+ * on every booking attempt; a car's intervals are only loaded from the database on a cache miss.
+ * Each entry also keeps its status and creation time, so the catalog can show a car's active
+ * reservations without loading them; it is told which car changed after every commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReservationIntervalIndex {
+    static final List<ReservationStatus> ACTIVE_STATUSES =
+            List.of(ReservationStatus.PENDING, ReservationStatus.CONFIRMED);
+
+    private final ReservationRepository reservationRepository;
+    private final ConcurrentHashMap<Long, CarTimeline> timelines = new ConcurrentHashMap<>();
+    // Once every active reservation has been loaded, a car without a timeline simply has none
+    private volatile boolean warmed;
+    private volatile LongConsumer changeListener = carId -> { };
+
+    // Runs before the other startup loads, the catalog's included, so they read a warm index
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Map<Long, CarTimeline> loaded = new HashMap<>();
+        for (ActiveReservation reservation : reservationRepository.findActiveByStatusIn(ACTIVE_STATUSES)) {
+            loaded.computeIfAbsent(reservation.getCarId(), id -> new CarTimeline()).add(slotOf(reservation));
+        }
+        loaded.forEach(timelines::putIfAbsent);
+        warmed = true;
+    }
+
+    // Called with the car id after each committed change to that car's active reservations
+    public void onCarChanged(LongConsumer listener) {
+        changeListener = listener;
+    }
+
+    public boolean hasOverlap(Long carId, LocalDateTime start, LocalDateTime end) {
+        return hasOverlap(carId, start, end, null);
+    }
+
+    public boolean hasOverlap(Long carId, LocalDateTime start, LocalDateTime end, Long ignoredReservationId) {
+        return timeline(carId).overlaps(start, end, ignoredReservationId);
+    }
+
+    // Active reservations of a car in start order, as detached summaries without car or user
+    public List<Reservation> activeReservations(Long carId) {
+        List<Reservation> reservations = new ArrayList<>();
+        for (Slot slot : timeline(carId).slots()) {
+            Reservation reservation = new Reservation();
+            reservation.setId(slot.id());
+            reservation.setStartDate(slot.start());
+            reservation.setEndDate(slot.end());
+            reservation.setStatus(slot.status());
+            reservation.setCreatedAt(slot.createdAt());
+            reservation.setUpdatedAt(null);
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+
+    // Applied after commit so a rolled back booking never blocks the car
+    public void track(Reservation reservation) {
+        Long carId = reservation.getCar().getId();
+        Long reservationId = reservation.getId();
+        Slot slot = new Slot(reservationId, reservation.getStartDate(), reservation.getEndDate(),
+                reservation.getStatus(), reservation.getCreatedAt());
+        boolean active = ACTIVE_STATUSES.contains(reservation.getStatus());
+
+        AfterCommit.run(() -> {
+            if (active) {
+                timeline(carId).add(slot);
+            } else {
+                timeline(carId).remove(reservationId);
+            }
+            changeListener.accept(carId);
+        });
+    }
+
+    public void untrack(Long carId, Long reservationId) {
+        AfterCommit.run(() -> {
+            timeline(carId).remove(reservationId);
+            changeListener.accept(carId);
+        });
+    }
+
+    private CarTimeline timeline(Long carId) {
+        CarTimeline timeline = timelines.get(carId);
+        if (timeline != null) {
+            return timeline;
+        }
+
+        // Cache miss - fall back to the database once for this car, unless the warm-up already covered it
+        CarTimeline loaded = new CarTimeline();
+        if (!warmed) {
+            for (ActiveReservation reservation : reservationRepository.findActiveForCar(carId, ACTIVE_STATUSES)) {
+                loaded.add(slotOf(reservation));
+            }
+        }
+        CarTimeline existing = timelines.putIfAbsent(carId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private static Slot slotOf(ActiveReservation reservation) {
+        return new Slot(reservation.getId(), reservation.getStartDate(), reservation.getEndDate(),
+                reservation.getStatus(), reservation.getCreatedAt());
+    }
+
+    private record Slot(Long id, LocalDateTime start, LocalDateTime end,
+                        ReservationStatus status, LocalDateTime createdAt) {
+    }
+
+    private static final class CarTimeline {
+        private static final Comparator<Slot> ORDER = Comparator
+                .comparing(Slot::start)
+                .thenComparing(Slot::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final NavigableSet<Slot> slots = new TreeSet<>(ORDER);
+        private final Map<Long, Slot> byId = new HashMap<>();
+        // Longest interval ever stored; bounds how far back an overlapping start can be
+        private Duration maxSpan = Duration.ZERO;
+
+        synchronized void add(Slot slot) {
+            remove(slot.id());
+            slots.add(slot);
+            byId.put(slot.id(), slot);
+            Duration span = Duration.between(slot.start(), slot.end());
+            if (span.compareTo(maxSpan) > 0) {
+                maxSpan = span;
+            }
+        }
+
+        synchronized void remove(Long id) {
+            Slot slot = byId.remove(id);
+            if (slot != null) {
+                slots.remove(slot);
+            }
+        }
+
+        synchronized List<Slot> slots() {
+            return new ArrayList<>(slots);
+        }
+
+        synchronized boolean overlaps(LocalDateTime start, LocalDateTime end, Long ignoredId) {
+            // Walk backwards from the last interval starting on or before the requested end
+            Slot probe = new Slot(Long.MAX_VALUE, end, end, null, null);
+            LocalDateTime earliestRelevantStart = start.minus(maxSpan);
+            for (Slot slot : slots.headSet(probe, true).descendingSet()) {
+                if (slot.start().isBefore(earliestRelevantStart)) {
+                    break;
+                }
+                if (!slot.id().equals(ignoredId) && !slot.end().isBefore(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.cars.cars.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cars.cars.model.Reservation;
+import com.cars.cars.model.ReservationStatus;
+import com.cars.cars.repository.CarRepository;
+import com.cars.cars.repository.ReservationInterval;
+import com.cars.cars.repository.ReservationRepository;
+import com.cars.cars.repository.ReservationTotal;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drives CONFIRMED reservations across their start and end boundaries. Every boundary is
+ * scheduled on a hashed timing wheel; each tick applies the due boundaries with a few bulk
+ * UPDATEs: cars are marked rented when a reservation starts, and ended reservations are
+ * completed and their cars released.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReservationLifecycleScheduler {
+    private static final long TICK_MILLIS = 60_000;
+    // One revolution covers a day at one minute per tick
+    private static final int WHEEL_SIZE = 1440;
+
+    private final ReservationRepository reservationRepository;
+    private final CarRepository carRepository;
+    private final CarService carService;
+    private final ReservationIntervalIndex reservationIntervalIndex;
+    private final CarAvailabilityService carAvailabilityService;
+    private final DashboardStats dashboardStats;
+    private final DailyRollupService dailyRollupService;
+    private final HashedTimingWheel<Boundary> wheel =
+            new HashedTimingWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (ReservationInterval interval : reservationRepository.findIntervalsByStatusIn(List.of(ReservationStatus.CONFIRMED))) {
+            schedule(interval.getId(), interval.getCarId(), interval.getStartDate(), interval.getEndDate());
+        }
+    }
+
+    public void track(Reservation reservation) {
+        if (reservation.getStatus() != ReservationStatus.CONFIRMED) {
+            // Boundaries of reservations that are no longer CONFIRMED are ignored when they fire
+            return;
+        }
+        Long reservationId = reservation.getId();
+        Long carId = reservation.getCar().getId();
+        LocalDateTime start = reservation.getStartDate();
+        LocalDateTime end = reservation.getEndDate();
+        AfterCommit.run(() -> schedule(reservationId, carId, start, end));
+    }
+
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    @Transactional
+    public void tick() {
+        List<Boundary> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<Long> started = new ArrayList<>();
+        List<Boundary> ended = new ArrayList<>();
+        Set<Long> touchedCarIds = new HashSet<>();
+        for (Boundary boundary : due) {
+            if (boundary.end()) {
+                ended.add(boundary);
+            } else {
+                started.add(boundary.reservationId());
+            }
+            touchedCarIds.add(boundary.carId());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!started.isEmpty()) {
+            carRepository.markCarsRentedForStartedReservations(started, now);
+        }
+        if (!ended.isEmpty()) {
+            List<Long> reservationIds = new ArrayList<>(ended.size());
+            Set<Long> carIds = new HashSet<>();
+            for (Boundary boundary : ended) {
+                reservationIds.add(boundary.reservationId());
+                carIds.add(boundary.carId());
+            }
+            List<ReservationTotal> completing = reservationRepository.findEndedReservationTotals(
+                    reservationIds, now, ReservationStatus.CONFIRMED);
+            int completed = reservationRepository.completeEndedReservations(
+                    reservationIds, now, ReservationStatus.CONFIRMED, ReservationStatus.COMPLETED);
+            long revenueCents = 0;
+            for (ReservationTotal reservation : completing) {
+                revenueCents += CarColumns.toCents(reservation.getTotalPrice());
+            }
+            dashboardStats.reservationsMoved(ReservationStatus.CONFIRMED, ReservationStatus.COMPLETED,
+                    completed, revenueCents);
+            dailyRollupService.recordCompleted(completing);
+            carRepository.releaseCarsWithoutConfirmedReservations(carIds, now);
+
+            for (Boundary boundary : ended) {
+                reservationIntervalIndex.untrack(boundary.carId(), boundary.reservationId());
+            }
+            carIds.forEach(carAvailabilityService::untrack);
+        }
+        // The bulk UPDATEs bypass CarService, so republish the affected cars in the catalog
+        carService.refreshCatalog(touchedCarIds);
+    }
+
+    private void schedule(Long reservationId, Long carId, LocalDateTime start, LocalDateTime end) {
+        wheel.schedule(new Boundary(reservationId, carId, false), toMillis(start));
+        wheel.schedule(new Boundary(reservationId, carId, true), toMillis(end));
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Boundary(Long reservationId, Long carId, boolean end) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.cars.cars.service;
+
+// Outbox payload for a reservation notification
+public record ReservationNotificationEvent(Long userId, Long reservationId, String action, String details) {
+}
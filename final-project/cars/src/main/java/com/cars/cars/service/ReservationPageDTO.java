@@ -0,0 +1,15 @@
+package com.cars.cars.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ReservationPageDTO {
+    private List<ReservationDTO> items;
+    // Opaque keyset cursor to pass back as ?cursor= for the next page; null on the last page
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -2,23 +2,53 @@ package com.cars.cars.service;
 
 import com.cars.cars.model.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.cars.cars.repository.ReservationListItem;
 import com.cars.cars.repository.ReservationRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ReservationService {
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final int MAX_PAGE_SIZE = 200;
+    // Cursor of the first page; sorts after every real row
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59);
+
     private final ReservationRepository reservationRepository;
     private final CarService carService;
     private final UserService userService;
-    private final NotificationService notificationService;
+    private final OutboxService outboxService;
+    private final ReservationIntervalIndex reservationIntervalIndex;
+    private final CarAvailabilityService carAvailabilityService;
+    private final CarBookingLocks carBookingLocks;
+    private final ReservationLifecycleScheduler reservationLifecycleScheduler;
+    private final ReservationHoldExpiry reservationHoldExpiry;
+    private final QuoteService quoteService;
+    private final DashboardStats dashboardStats;
+    private final DailyRollupService dailyRollupService;
+    private final EntityManager entityManager;
 
     @Transactional
     public Reservation createReservation(Reservation reservation) {
@@ -56,14 +86,9 @@ public class ReservationService {
             throw new RuntimeException("Car is not available for reservation");
         }
 
-        // Check for overlapping reservations
-        List<Reservation> overlapping = reservationRepository.findOverlappingReservations(
-            car.getId(),
-            normalizedStartDate,
-            normalizedEndDate
-        );
-        
-        if (!overlapping.isEmpty()) {
+        // Serialize bookings for this car until commit, then check for overlapping reservations
+        carBookingLocks.lockUntilCompletion(car.getId());
+        if (reservationIntervalIndex.hasOverlap(car.getId(), normalizedStartDate, normalizedEndDate)) {
             throw new RuntimeException("Car is already reserved for these dates");
         }
 
@@ -71,30 +96,168 @@ public class ReservationService {
         User user = userService.getUserById(reservation.getUser().getId());
         reservation.setUser(user);
         reservation.setCar(car);
+        // Priced on the server from the car's current daily rate; any client total is ignored
+        reservation.setTotalPrice(quoteService.priceFor(car, normalizedStartDate.toLocalDate(), normalizedEndDate.toLocalDate()));
         
         // Set initial status to PENDING
         if (reservation.getStatus() == null) {
             reservation.setStatus(ReservationStatus.PENDING);
         }
-        notificationService.createReservationNotification(
-                reservation.getUser(),
-                reservation.getId(),
-                "created",
-                "New reservation created"
-        );
 
-        return reservationRepository.save(reservation);
+        Reservation savedReservation;
+        try {
+            savedReservation = reservationRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            // Raised by the reservations_no_overlap exclusion constraint when another node won the race
+            throw new RuntimeException("Car is already reserved for these dates");
+        }
+        // Notification is delivered asynchronously from the outbox
+        outboxService.enqueueReservationNotification(savedReservation, "created", "New reservation created");
+        dashboardStats.reservationChanged(null, savedReservation.getStatus(), savedReservation.getTotalPrice());
+        dailyRollupService.record(savedReservation, null, savedReservation.getStatus());
+        indexReservation(savedReservation);
+        return savedReservation;
+    }
+
+    // Books many cars in one transaction: one car lookup, one user lookup, one saveAll and
+    // one bulk outbox insert. Invalid items are reported per index and do not abort the rest.
+    @Transactional
+    public List<BatchReservationResultDTO> createReservationBatch(List<CreateReservationDTO> items) {
+        if (items == null || items.isEmpty()) {
+            throw new RuntimeException("At least one reservation is required");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("A batch cannot contain more than " + MAX_BATCH_SIZE + " reservations");
+        }
+
+        Set<Long> carIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (CreateReservationDTO item : items) {
+            if (item.getCarId() != null) {
+                carIds.add(item.getCarId());
+            }
+            if (item.getUserId() != null) {
+                userIds.add(item.getUserId());
+            }
+        }
+        Map<Long, Car> cars = carService.getCarsByIds(carIds);
+        Map<Long, User> users = userService.getUsersByIds(userIds);
+        carBookingLocks.lockAllUntilCompletion(cars.keySet());
+
+        LocalDateTime currentDayStart = LocalDate.now().atStartOfDay();
+        BatchReservationResultDTO[] results = new BatchReservationResultDTO[items.size()];
+        List<Reservation> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            CreateReservationDTO item = items.get(i);
+            if (item.getCarId() == null || item.getUserId() == null ||
+                item.getStartDate() == null || item.getEndDate() == null) {
+                results[i] = BatchReservationResultDTO.failure(i, "Missing required fields for reservation");
+                continue;
+            }
+
+            LocalDateTime start = item.getStartDate().toLocalDate().atStartOfDay();
+            LocalDateTime end = item.getEndDate().toLocalDate().atTime(LocalTime.MAX);
+            Car car = cars.get(item.getCarId());
+            User user = users.get(item.getUserId());
+
+            if (start.isBefore(currentDayStart)) {
+                results[i] = BatchReservationResultDTO.failure(i, "Start date cannot be in the past");
+            } else if (!end.isAfter(start)) {
+                results[i] = BatchReservationResultDTO.failure(i, "End date must be after start date");
+            } else if (car == null) {
+                results[i] = BatchReservationResultDTO.failure(i, "Car not found with id: " + item.getCarId());
+            } else if (user == null) {
+                results[i] = BatchReservationResultDTO.failure(i, "User not found with id: " + item.getUserId());
+            } else if (!car.getIsAvailable()) {
+                results[i] = BatchReservationResultDTO.failure(i, "Car is not available for reservation");
+            } else if (reservationIntervalIndex.hasOverlap(car.getId(), start, end)
+                    || overlapsAccepted(accepted, car.getId(), start, end)) {
+                results[i] = BatchReservationResultDTO.failure(i, "Car is already reserved for these dates");
+            } else {
+                Reservation reservation = new Reservation();
+                reservation.setCar(car);
+                reservation.setUser(user);
+                reservation.setStartDate(start);
+                reservation.setEndDate(end);
+                reservation.setTotalPrice(quoteService.priceFor(car, start.toLocalDate(), end.toLocalDate()));
+                reservation.setStatus(ReservationStatus.PENDING);
+                accepted.add(reservation);
+                acceptedIndexes.add(i);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<Reservation> saved;
+            try {
+                saved = reservationRepository.saveAllAndFlush(accepted);
+            } catch (DataIntegrityViolationException e) {
+                throw new RuntimeException("One or more cars are already reserved for these dates");
+            }
+            outboxService.enqueueReservationNotifications(saved, "created", "New reservation created");
+
+            for (int k = 0; k < saved.size(); k++) {
+                Reservation reservation = saved.get(k);
+                dashboardStats.reservationChanged(null, reservation.getStatus(), reservation.getTotalPrice());
+                indexReservation(reservation);
+                int index = acceptedIndexes.get(k);
+                results[index] = BatchReservationResultDTO.success(index, ReservationDTO.fromEntity(reservation));
+            }
+        }
+
+        return Arrays.asList(results);
     }
 
     public List<Reservation> getAllReservations() {
         return reservationRepository.findAll();
     }
 
+    // Lazily pulls every reservation as a list row, newest first; consume inside a transaction
+    public Stream<ReservationListItem> streamAllReservations() {
+        return reservationRepository.streamListItems();
+    }
+
+    // Unpaged listings for callers that pass neither cursor nor size; same rows as the pages, in one list
+    public List<ReservationDTO> getReservationList() {
+        return fullList(reservationRepository::findListItemsBefore);
+    }
+
+    public List<ReservationDTO> getReservationListByUser(Long userId) {
+        return fullList((createdAt, id, pageable) -> reservationRepository.findListItemsByUserBefore(userId, createdAt, id, pageable));
+    }
+
+    public List<ReservationDTO> getReservationListByCar(Long carId) {
+        return fullList((createdAt, id, pageable) -> reservationRepository.findListItemsByCarBefore(carId, createdAt, id, pageable));
+    }
+
+    public ReservationPageDTO getReservationPage(String cursor, int size) {
+        return keysetPage(cursor, size, reservationRepository::findListItemsBefore);
+    }
+
+    public ReservationPageDTO getReservationPageByUser(Long userId, String cursor, int size) {
+        return keysetPage(cursor, size,
+                (createdAt, id, pageable) -> reservationRepository.findListItemsByUserBefore(userId, createdAt, id, pageable));
+    }
+
+    public ReservationPageDTO getReservationPageByCar(Long carId, String cursor, int size) {
+        return keysetPage(cursor, size,
+                (createdAt, id, pageable) -> reservationRepository.findListItemsByCarBefore(carId, createdAt, id, pageable));
+    }
+
     public Reservation getReservationById(Long id) {
         return reservationRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Reservation not found with id: " + id));
     }
 
+    // Row-locks the reservation until the transaction ends and re-reads its state, so a concurrent
+    // hold expiry either finishes first and is seen here, or waits and then finds the row no longer PENDING
+    public Reservation lockReservation(Long id) {
+        Reservation reservation = getReservationById(id);
+        entityManager.refresh(reservation, LockModeType.PESSIMISTIC_WRITE);
+        return reservation;
+    }
+
     public List<Reservation> getReservationsByUser(Long userId) {
         return reservationRepository.findByUserId(userId);
     }
@@ -106,6 +269,7 @@ public class ReservationService {
     @Transactional
     public Reservation updateReservationStatus(Long id, ReservationStatus newStatus) {
         Reservation reservation = getReservationById(id);       
+        ReservationStatus previousStatus = reservation.getStatus();
         reservation.setStatus(newStatus);
 
         // Update car availability based on reservation status
@@ -133,7 +297,11 @@ public class ReservationService {
         }
         
         carService.updateCar(car.getId(), car);
-        return reservationRepository.save(reservation);
+        Reservation savedReservation = reservationRepository.save(reservation);
+        dashboardStats.reservationChanged(previousStatus, newStatus, savedReservation.getTotalPrice());
+        dailyRollupService.record(savedReservation, previousStatus, newStatus);
+        indexReservation(savedReservation);
+        return savedReservation;
     }
 
     @Transactional
@@ -155,6 +323,10 @@ public class ReservationService {
         }
         
         reservationRepository.deleteById(id);
+        dashboardStats.reservationChanged(reservation.getStatus(), null, reservation.getTotalPrice());
+        dailyRollupService.record(reservation, reservation.getStatus(), null);
+        reservationIntervalIndex.untrack(reservation.getCar().getId(), id);
+        carAvailabilityService.untrack(reservation.getCar().getId());
     }
 
     // In ReservationService.java - Fix the cancelReservation method
@@ -189,6 +361,7 @@ public class ReservationService {
         }
 
         // Update reservation status to CANCELLED
+        ReservationStatus previousStatus = reservation.getStatus();
         reservation.setStatus(ReservationStatus.CANCELLED);
         reservation.setUpdatedAt(LocalDateTime.now());
 
@@ -208,14 +381,70 @@ public class ReservationService {
             }
         }
 
-        // Create notification
-        notificationService.createReservationNotification(
-                reservation.getUser(),
-                reservation.getId(),
-                "cancelled",
-                "Reservation cancelled by user"
-        );
+        Reservation savedReservation = reservationRepository.save(reservation);
+        outboxService.enqueueReservationNotification(savedReservation, "cancelled", "Reservation cancelled by user");
+        dashboardStats.reservationChanged(previousStatus, ReservationStatus.CANCELLED, savedReservation.getTotalPrice());
+        dailyRollupService.record(savedReservation, previousStatus, ReservationStatus.CANCELLED);
+        indexReservation(savedReservation);
+        return savedReservation;
+    }
+
+    private void indexReservation(Reservation reservation) {
+        reservationIntervalIndex.track(reservation);
+        carAvailabilityService.track(reservation);
+        reservationLifecycleScheduler.track(reservation);
+        reservationHoldExpiry.track(reservation);
+    }
+
+    private boolean overlapsAccepted(List<Reservation> accepted, Long carId, LocalDateTime start, LocalDateTime end) {
+        return accepted.stream().anyMatch(r -> r.getCar().getId().equals(carId)
+                && !r.getStartDate().isAfter(end)
+                && !r.getEndDate().isBefore(start));
+    }
+
+    // Fetches one row more than requested to learn whether another page exists without counting
+    private ReservationPageDTO keysetPage(String cursor, int size, KeysetQuery query) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new RuntimeException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        LocalDateTime createdAt = FIRST_PAGE_CREATED_AT;
+        long id = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                createdAt = LocalDateTime.parse(parts[0]);
+                id = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+
+        List<ReservationListItem> rows = query.fetch(createdAt, id, PageRequest.of(0, size + 1));
+        boolean hasNext = rows.size() > size;
+        List<ReservationListItem> page = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            ReservationListItem last = page.get(page.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((last.getCreatedAt() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<ReservationDTO> items = page.stream()
+                .map(ReservationDTO::fromListItem)
+                .collect(Collectors.toList());
+        return new ReservationPageDTO(items, nextCursor, hasNext);
+    }
+
+    private List<ReservationDTO> fullList(KeysetQuery query) {
+        return query.fetch(FIRST_PAGE_CREATED_AT, Long.MAX_VALUE, Pageable.unpaged()).stream()
+                .map(ReservationDTO::fromListItem)
+                .collect(Collectors.toList());
+    }
 
-        return reservationRepository.save(reservation);
+    @FunctionalInterface
+    private interface KeysetQuery {
+        List<ReservationListItem> fetch(LocalDateTime createdAt, Long id, Pageable pageable);
     }
 }
\ No newline at end of file
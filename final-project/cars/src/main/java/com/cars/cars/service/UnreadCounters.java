@@ -0,0 +1,105 @@
+package com.cars.cars.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.cars.cars.repository.NotificationRepository;
+import com.cars.cars.repository.UnreadCount;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unread notification counts per user plus one global count, so badge refreshes never query the
+ * database. A user's counter is loaded on first use and then moved by NotificationService writes
+ * after they commit; a background pass reconciles the counters with the table.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UnreadCounters {
+    private final NotificationRepository notificationRepository;
+    private final Map<Long, AtomicLong> byUser = new ConcurrentHashMap<>();
+    private final AtomicLong global = new AtomicLong();
+    private volatile boolean globalLoaded;
+    // Drift seen by the previous reconciliation; the global count is stored under a null key
+    private final Map<Long, Long> lastDrift = new HashMap<>();
+
+    long forUser(Long userId) {
+        return byUser.computeIfAbsent(userId,
+                id -> new AtomicLong(notificationRepository.countByUserIdAndReadFalse(id))).get();
+    }
+
+    long global() {
+        if (!globalLoaded) {
+            synchronized (this) {
+                if (!globalLoaded) {
+                    global.set(notificationRepository.countByReadFalse());
+                    globalLoaded = true;
+                }
+            }
+        }
+        return global.get();
+    }
+
+    // Applies a change in a user's unread count once the surrounding transaction commits
+    void adjust(Long userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            // Users that were never loaded will read the committed count when they are
+            AtomicLong counter = byUser.get(userId);
+            if (counter != null) {
+                counter.addAndGet(delta);
+            }
+            global.addAndGet(delta);
+        });
+    }
+
+    void removeUser(Long userId, long unread) {
+        AfterCommit.run(() -> {
+            byUser.remove(userId);
+            global.addAndGet(-unread);
+        });
+    }
+
+    void clearAll() {
+        AfterCommit.run(() -> {
+            byUser.clear();
+            global.set(0);
+        });
+    }
+
+    // A drift is only corrected once two passes in a row agree on it, so a change that was
+    // committed but not yet applied while the queries ran is not counted twice
+    @Scheduled(initialDelay = 60_000, fixedDelay = 60_000)
+    public synchronized void reconcile() {
+        if (globalLoaded) {
+            correct(null, global, notificationRepository.countByReadFalse());
+        }
+        if (byUser.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> actual = new HashMap<>();
+        for (UnreadCount count : notificationRepository.countUnreadByUser()) {
+            actual.put(count.getUserId(), count.getUnread());
+        }
+        byUser.forEach((userId, counter) -> correct(userId, counter, actual.getOrDefault(userId, 0L)));
+        lastDrift.keySet().removeIf(userId -> userId != null && !byUser.containsKey(userId));
+    }
+
+    private void correct(Long key, AtomicLong counter, long actual) {
+        long drift = actual - counter.get();
+        if (drift != 0 && drift == lastDrift.getOrDefault(key, 0L)) {
+            log.warn("Correcting unread count {} by {}", key != null ? "of user " + key : "total", drift);
+            counter.addAndGet(drift);
+            drift = 0;
+        }
+        lastDrift.put(key, drift);
+    }
+}
@@ -1,10 +1,10 @@
 package com.cars.cars.service;
 
-import com.cars.cars.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
@@ -32,21 +32,27 @@ import com.cars.cars.model.Role;
 
 
 import java.nio.CharBuffer;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final TotpService totpService;
     private final EmailService emailService;
     private final NotificationService  notificationService;
-    private final NotificationRepository notificationRepository;
 
     @Value("${totp.issuer:Cars App}")
     private String appName;
@@ -215,6 +221,15 @@ public class UserService {
         userRepository.save(user);
     }
 
+    // Lazily pulls every user with reservations fetch-joined, a chunk of ids at a time; consume
+    // inside a transaction. Ids are paged separately because a collection fetch cannot be limited in SQL.
+    public Stream<User> streamAllUsers() {
+        return Stream.iterate(userRepository.findIdsAfter(0L, PageRequest.of(0, STREAM_CHUNK_SIZE)),
+                        ids -> !ids.isEmpty(),
+                        ids -> userRepository.findIdsAfter(ids.get(ids.size() - 1), PageRequest.of(0, STREAM_CHUNK_SIZE)))
+                .flatMap(ids -> userRepository.findWithReservationsByIdIn(ids).stream());
+    }
+
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
@@ -224,6 +239,11 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
 
+    public Map<Long, User> getUsersByIds(Collection<Long> ids) {
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
     @Transactional
     public User updateUser(Long id, User userDetails) {
         User user = getUserById(id);
@@ -251,7 +271,7 @@ public class UserService {
         }
 
         // Delete user's notifications first
-        notificationRepository.deleteByUserId(id);
+        notificationService.deleteByUserId(id);
 
         // Then delete the user
         userRepository.deleteById(id);
@@ -0,0 +1,148 @@
+package com.cars.cars.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cars.cars.dto.UtilizationBucketDTO;
+import com.cars.cars.dto.UtilizationDTO;
+import com.cars.cars.model.ReservationStatus;
+import com.cars.cars.repository.ReservationInterval;
+import com.cars.cars.repository.ReservationRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Fleet occupancy per car, make and month over windows of up to ten years. Booked intervals are
+ * streamed from the database straight into a UtilizationSweep, which runs on the common fork/join
+ * pool, and finished reports are cached per window for a few minutes. Capacity is measured against
+ * the cars in the current catalog.
+ */
+@Service
+public class UtilizationService {
+    private static final int MAX_RANGE_DAYS = 3660;
+    private static final int MAX_CACHED_WINDOWS = 64;
+    private static final long CACHE_TTL_MILLIS = 300_000;
+    private static final List<ReservationStatus> BOOKED_STATUSES =
+            List.of(ReservationStatus.CONFIRMED, ReservationStatus.COMPLETED);
+
+    private final ReservationRepository reservationRepository;
+    private final CarService carService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<Window, CachedReport> reports = new ConcurrentHashMap<>();
+
+    public UtilizationService(ReservationRepository reservationRepository, CarService carService,
+                              PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.carService = carService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public UtilizationDTO getUtilization(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new RuntimeException("Both from and to dates are required");
+        }
+        if (to.isBefore(from)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new RuntimeException("Utilization range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        Window window = new Window(from, to);
+        long now = System.currentTimeMillis();
+        CachedReport cached = reports.get(window);
+        if (cached != null && now - cached.computedAt() < CACHE_TTL_MILLIS) {
+            return cached.report();
+        }
+        UtilizationDTO report = compute(from, to);
+        if (reports.size() >= MAX_CACHED_WINDOWS) {
+            reports.clear();
+        }
+        reports.put(window, new CachedReport(report, now));
+        return report;
+    }
+
+    private UtilizationDTO compute(LocalDate from, LocalDate to) {
+        CarColumns columns = carService.catalogColumns();
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        List<YearMonth> months = new ArrayList<>();
+        int[] monthStarts = monthStarts(from, to, days, months);
+
+        UtilizationSweep sweep = new UtilizationSweep(columns.size, monthStarts);
+        long origin = from.toEpochDay();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ReservationInterval> intervals = reservationRepository.streamIntervalsOverlapping(
+                    BOOKED_STATUSES, from.atStartOfDay(), to.atTime(LocalTime.MAX))) {
+                for (Iterator<ReservationInterval> iterator = intervals.iterator(); iterator.hasNext(); ) {
+                    ReservationInterval interval = iterator.next();
+                    sweep.add(columns.rowOf(interval.getCarId()),
+                            (int) (interval.getStartDate().toLocalDate().toEpochDay() - origin),
+                            (int) (interval.getEndDate().toLocalDate().toEpochDay() - origin));
+                }
+            }
+        });
+        UtilizationSweep.Result result = sweep.run(ForkJoinPool.commonPool());
+
+        List<UtilizationBucketDTO> cars = new ArrayList<>(columns.size);
+        long[] makeDays = new long[columns.makes.length];
+        long[] makeCars = new long[columns.makes.length];
+        long fleetDays = 0;
+        for (int row = 0; row < columns.size; row++) {
+            long occupied = result.carDays()[row];
+            cars.add(bucket(String.valueOf(columns.ids[row]), occupied, days));
+            makeDays[columns.makeCode[row]] += occupied;
+            makeCars[columns.makeCode[row]]++;
+            fleetDays += occupied;
+        }
+
+        List<UtilizationBucketDTO> makes = new ArrayList<>(columns.makes.length);
+        for (int code = 0; code < columns.makes.length; code++) {
+            makes.add(bucket(columns.makes[code], makeDays[code], makeCars[code] * days));
+        }
+
+        List<UtilizationBucketDTO> monthBuckets = new ArrayList<>(months.size());
+        for (int m = 0; m < months.size(); m++) {
+            long monthDays = monthStarts[m + 1] - monthStarts[m];
+            monthBuckets.add(bucket(months.get(m).toString(), result.monthDays()[m], (long) columns.size * monthDays));
+        }
+
+        return new UtilizationDTO(from, to, days, bucket("fleet", fleetDays, (long) columns.size * days),
+                cars, makes, monthBuckets);
+    }
+
+    // First window day index of each month touched by the window, followed by the window length
+    private static int[] monthStarts(LocalDate from, LocalDate to, int days, List<YearMonth> months) {
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        int[] starts = new int[months.size() + 1];
+        for (int m = 1; m < months.size(); m++) {
+            starts[m] = (int) ChronoUnit.DAYS.between(from, months.get(m).atDay(1));
+        }
+        starts[months.size()] = days;
+        return starts;
+    }
+
+    private static UtilizationBucketDTO bucket(String key, long occupiedDays, long capacityDays) {
+        double occupancy = capacityDays == 0 ? 0 : (double) occupiedDays / capacityDays;
+        return new UtilizationBucketDTO(key, occupiedDays, capacityDays, occupancy);
+    }
+
+    private record Window(LocalDate from, LocalDate to) {
+    }
+
+    private record CachedReport(UtilizationDTO report, long computedAt) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.cars.cars.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Occupied car-days over a window of days, per car row and per month bucket. Intervals are
+ * collected into primitive arrays, grouped by car with a counting sort, and each car's intervals
+ * are swept in start order with overlaps merged. Cars are split across a fork/join pool, every
+ * leaf keeps its own month totals and the totals are added up as the tasks join.
+ */
+final class UtilizationSweep {
+    // Cars handled by one fork/join leaf
+    private static final int LEAF_CARS = 128;
+
+    private final int cars;
+    private final int[] monthStarts;
+    private int[] carRow = new int[1024];
+    private int[] startDay = new int[1024];
+    private int[] endDay = new int[1024];
+    private int size;
+
+    // monthStarts holds the first day index of every month bucket, followed by the window length
+    UtilizationSweep(int cars, int[] monthStarts) {
+        this.cars = cars;
+        this.monthStarts = monthStarts;
+    }
+
+    // Days are window indexes and are clipped to the window; intervals outside it are ignored
+    void add(int row, int firstDay, int lastDay) {
+        int days = monthStarts[monthStarts.length - 1];
+        firstDay = Math.max(firstDay, 0);
+        lastDay = Math.min(lastDay, days - 1);
+        if (row < 0 || row >= cars || lastDay < firstDay) {
+            return;
+        }
+        if (size == carRow.length) {
+            carRow = Arrays.copyOf(carRow, size * 2);
+            startDay = Arrays.copyOf(startDay, size * 2);
+            endDay = Arrays.copyOf(endDay, size * 2);
+        }
+        carRow[size] = row;
+        startDay[size] = firstDay;
+        endDay[size] = lastDay;
+        size++;
+    }
+
+    Result run(ForkJoinPool pool) {
+        // Counting sort by car: offsets[c]..offsets[c + 1] is car c's slice of packed intervals
+        int[] offsets = new int[cars + 1];
+        for (int i = 0; i < size; i++) {
+            offsets[carRow[i] + 1]++;
+        }
+        for (int c = 0; c < cars; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        long[] packed = new long[size];
+        int[] next = Arrays.copyOf(offsets, cars);
+        for (int i = 0; i < size; i++) {
+            // Start in the high half so sorting a slice orders it by start day
+            packed[next[carRow[i]]++] = ((long) startDay[i] << 32) | endDay[i];
+        }
+
+        long[] carDays = new long[cars];
+        long[] monthDays = pool.invoke(new Sweep(packed, offsets, carDays, 0, cars));
+        return new Result(carDays, monthDays);
+    }
+
+    record Result(long[] carDays, long[] monthDays) {
+    }
+
+    private final class Sweep extends RecursiveTask<long[]> {
+        private final long[] packed;
+        private final int[] offsets;
+        private final long[] carDays;
+        private final int fromCar;
+        private final int toCar;
+
+        Sweep(long[] packed, int[] offsets, long[] carDays, int fromCar, int toCar) {
+            this.packed = packed;
+            this.offsets = offsets;
+            this.carDays = carDays;
+            this.fromCar = fromCar;
+            this.toCar = toCar;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (toCar - fromCar > LEAF_CARS) {
+                int middle = (fromCar + toCar) >>> 1;
+                Sweep left = new Sweep(packed, offsets, carDays, fromCar, middle);
+                left.fork();
+                long[] right = new Sweep(packed, offsets, carDays, middle, toCar).compute();
+                long[] months = left.join();
+                for (int m = 0; m < months.length; m++) {
+                    months[m] += right[m];
+                }
+                return months;
+            }
+
+            long[] months = new long[monthStarts.length - 1];
+            for (int car = fromCar; car < toCar; car++) {
+                int from = offsets[car];
+                int to = offsets[car + 1];
+                if (from == to) {
+                    continue;
+                }
+                // Slices are disjoint, so leaves sort and write their own cars without locking
+                Arrays.sort(packed, from, to);
+                long occupied = 0;
+                int runStart = (int) (packed[from] >>> 32);
+                int runEnd = (int) packed[from];
+                for (int i = from + 1; i < to; i++) {
+                    int start = (int) (packed[i] >>> 32);
+                    int end = (int) packed[i];
+                    if (start > runEnd + 1) {
+                        occupied += addRun(months, runStart, runEnd);
+                        runStart = start;
+                        runEnd = end;
+                    } else if (end > runEnd) {
+                        runEnd = end;
+                    }
+                }
+                occupied += addRun(months, runStart, runEnd);
+                carDays[car] = occupied;
+            }
+            return months;
+        }
+
+        // Splits [first, last] across the month buckets it covers and returns its length
+        private long addRun(long[] months, int first, int last) {
+            int month = Arrays.binarySearch(monthStarts, first);
+            if (month < 0) {
+                month = -month - 2;
+            }
+            for (int day = first; day <= last; month++) {
+                int monthLast = Math.min(last, monthStarts[month + 1] - 1);
+                months[month] += monthLast - day + 1;
+                day = monthLast + 1;
+            }
+            return last - first + 1;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.cars.cars.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cars.cars.model.Car;
+import com.cars.cars.model.DriveType;
+import com.cars.cars.model.TransmissionType;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert throughput against the configured PostgreSQL database, run with -Dbenchmark.db=true
+ * (for example against the docker-compose database). Pooled sequence ids let Hibernate batch the
+ * inserts, so far fewer statements are prepared than rows written. The inserts are rolled back.
+ */
+@Slf4j
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "benchmark.db", matches = "true")
+class CarInsertThroughputTest {
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Transactional
+    void insertsAreBatched() {
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Car car = new Car();
+            car.setMake("Benchmark");
+            car.setModel("Model " + i);
+            car.setYear(2020 + i % 5);
+            car.setTransmission(TransmissionType.values()[i % TransmissionType.values().length]);
+            car.setDriveType(DriveType.values()[i % DriveType.values().length]);
+            car.setPricePerDay(BigDecimal.valueOf(50 + i % 100));
+            cars.add(car);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long started = System.nanoTime();
+        carRepository.saveAll(cars);
+        entityManager.flush();
+        long elapsedNanos = System.nanoTime() - started;
+
+        long statements = statistics.getPrepareStatementCount();
+        log.info("Inserted {} cars in {} ms ({} rows/s) using {} prepared statements",
+                ROWS, elapsedNanos / 1_000_000, ROWS * 1_000_000_000L / Math.max(elapsedNanos, 1), statements);
+        // One insert statement per batch of 50 plus one sequence call per 50 ids
+        assertThat(statements).isLessThan(ROWS / 10);
+    }
+}
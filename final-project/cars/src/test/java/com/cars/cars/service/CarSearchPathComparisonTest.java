@@ -0,0 +1,106 @@
+package com.cars.cars.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.cars.cars.dto.CarFilterDTO;
+import com.cars.cars.model.Car;
+import com.cars.cars.model.DriveType;
+import com.cars.cars.model.TransmissionType;
+import com.cars.cars.repository.CarRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times filterCars over the columnar snapshot against the Criteria API fallback for the same
+ * filter, run with -Dbenchmark.db=true against the configured PostgreSQL database. Sorting by
+ * pricePerDay stays in memory, sorting by color goes to the database; both must agree on the total.
+ * The cars it adds are deleted afterwards.
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark.db", matches = "true")
+class CarSearchPathComparisonTest {
+    private static final int ROWS = 5_000;
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 100;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    private final List<Car> cars = new ArrayList<>();
+
+    @BeforeEach
+    void addCars() {
+        for (int i = 0; i < ROWS; i++) {
+            Car car = new Car();
+            car.setMake("Benchmark");
+            car.setModel("Model " + i);
+            car.setYear(2015 + i % 10);
+            car.setColor(i % 2 == 0 ? "Red" : "Blue");
+            car.setTransmission(TransmissionType.values()[i % TransmissionType.values().length]);
+            car.setDriveType(DriveType.values()[i % DriveType.values().length]);
+            car.setPricePerDay(BigDecimal.valueOf(20 + i % 300));
+            car.setIsAvailable(i % 4 != 0);
+            cars.add(car);
+        }
+        carRepository.saveAll(cars);
+        carService.refreshCatalog(cars.stream().map(Car::getId).toList());
+    }
+
+    @AfterEach
+    void removeCars() {
+        carRepository.deleteAllInBatch(cars);
+    }
+
+    @Test
+    void columnarSearchOutrunsCriteriaSearch() {
+        Pageable page = PageRequest.of(2, 20);
+        CarFilterDTO columnar = filter("pricePerDay");
+        CarFilterDTO criteria = filter("color");
+
+        assertThat(carService.filterCars(columnar, page).getTotalElements())
+                .isEqualTo(carService.filterCars(criteria, page).getTotalElements());
+
+        long columnarNanos = time(columnar, page);
+        long criteriaNanos = time(criteria, page);
+        log.info("filterCars over {} cars: columnar {} us, Criteria {} us per search",
+                ROWS, columnarNanos / MEASURED_RUNS / 1_000, criteriaNanos / MEASURED_RUNS / 1_000);
+        assertThat(columnarNanos).isLessThan(criteriaNanos);
+    }
+
+    private long time(CarFilterDTO filter, Pageable page) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            carService.filterCars(filter, page);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            carService.filterCars(filter, page);
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static CarFilterDTO filter(String sortBy) {
+        CarFilterDTO filter = new CarFilterDTO();
+        filter.setMake("bench");
+        filter.setMinPrice(BigDecimal.valueOf(50));
+        filter.setMaxPrice(BigDecimal.valueOf(250));
+        filter.setOnlyAvailable(true);
+        filter.setSortBy(sortBy);
+        return filter;
+    }
+}
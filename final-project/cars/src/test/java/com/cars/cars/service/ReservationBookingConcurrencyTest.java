@@ -0,0 +1,293 @@
+package com.cars.cars.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.cars.cars.model.Car;
+import com.cars.cars.model.Reservation;
+import com.cars.cars.model.User;
+import com.cars.cars.repository.ReservationRepository;
+
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Hammers ReservationService.createReservation and createReservationBatch from many threads, with
+ * the real striped car locks and interval index and without a database: repositories and the other
+ * collaborators are mocks. Transactions are simulated with Spring's synchronization callbacks, the
+ * same ones the real transaction manager fires.
+ */
+class ReservationBookingConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 50;
+    private static final int ATTEMPTS_PER_THREAD = 200;
+    private static final int CARS = 6;
+    private static final String ALREADY_RESERVED = "Car is already reserved for these dates";
+
+    private final LocalDateTime origin = LocalDate.now().plusDays(1).atStartOfDay();
+    private final ReservationRepository reservationRepository = stub(ReservationRepository.class);
+    private final CarService carService = stub(CarService.class);
+    private final UserService userService = stub(UserService.class);
+    private final ReservationIntervalIndex index = new ReservationIntervalIndex(reservationRepository);
+    // Few stripes, so different cars also contend for the same lock
+    private final CarBookingLocks locks = new CarBookingLocks(2);
+    private final ReservationService reservationService = new ReservationService(
+            reservationRepository, carService, userService, stub(OutboxService.class), index,
+            stub(CarAvailabilityService.class), locks, stub(ReservationLifecycleScheduler.class),
+            stub(ReservationHoldExpiry.class), stub(QuoteService.class), stub(DashboardStats.class),
+            stub(DailyRollupService.class), stub(EntityManager.class));
+    private final Map<Long, Car> cars = new LinkedHashMap<>();
+    private final User user = new User();
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void stubRepositories() {
+        for (long id = 1; id <= CARS; id++) {
+            Car car = new Car();
+            car.setId(id);
+            car.setIsAvailable(true);
+            cars.put(id, car);
+        }
+        user.setId(1L);
+
+        when(carService.getCarById(anyLong())).thenAnswer(invocation -> cars.get(invocation.<Long>getArgument(0)));
+        when(carService.getCarsByIds(anyCollection())).thenAnswer(invocation -> shuffled(invocation.getArgument(0)));
+        when(userService.getUserById(anyLong())).thenReturn(user);
+        when(userService.getUsersByIds(anyCollection())).thenReturn(Map.of(user.getId(), user));
+        when(reservationRepository.saveAndFlush(any())).thenAnswer(invocation -> withId(invocation.getArgument(0)));
+        when(reservationRepository.saveAllAndFlush(anyIterable())).thenAnswer(invocation -> {
+            List<Reservation> reservations = invocation.getArgument(0);
+            reservations.forEach(this::withId);
+            return reservations;
+        });
+    }
+
+    @Test
+    void overlappingBookingsOfOneCarHaveExactlyOneWinner() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            LocalDateTime start = origin.plusDays(round * 10L);
+            AtomicInteger booked = new AtomicInteger();
+            Queue<String> rejections = new ConcurrentLinkedQueue<>();
+            runConcurrently(() -> {
+                // Every thread wants the same first day, for a stay of its own length
+                LocalDateTime end = start.plusDays(ThreadLocalRandom.current().nextInt(4));
+                try {
+                    inTransaction(true, () -> reservationService.createReservation(request(1L, start, end)));
+                    booked.incrementAndGet();
+                } catch (RuntimeException e) {
+                    rejections.add(e.getMessage());
+                }
+            });
+
+            assertThat(booked.get()).as("bookings accepted in round %d", round).isEqualTo(1);
+            assertThat(rejections).hasSize(THREADS - 1).containsOnly(ALREADY_RESERVED);
+        }
+    }
+
+    @Test
+    void concurrentBookingsNeverOverlap() throws Exception {
+        Queue<Booking> accepted = new ConcurrentLinkedQueue<>();
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                long carId = random.nextLong(1, CARS + 1);
+                LocalDateTime start = origin.plusDays(random.nextInt(120));
+                LocalDateTime end = start.plusDays(random.nextInt(4));
+                // Every tenth booking rolls back and must leave no trace
+                boolean commit = random.nextInt(10) != 0;
+                try {
+                    Reservation reservation = inTransaction(commit,
+                            () -> reservationService.createReservation(request(carId, start, end)));
+                    if (commit) {
+                        accepted.add(Booking.of(reservation));
+                    }
+                } catch (RuntimeException e) {
+                    assertThat(e).hasMessage(ALREADY_RESERVED);
+                }
+            }
+        });
+
+        assertThat(accepted).isNotEmpty();
+        assertNoOverlaps(accepted);
+    }
+
+    @Test
+    void batchBookingsOverSharedCarsDoNotDeadlock() throws Exception {
+        Queue<Booking> accepted = new ConcurrentLinkedQueue<>();
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                // Overlapping car sets, so two batches often share one car and differ in the others
+                List<Long> carIds = new ArrayList<>(cars.keySet());
+                Collections.shuffle(carIds, random);
+                List<CreateReservationDTO> items = new ArrayList<>();
+                for (Long carId : carIds.subList(0, random.nextInt(2, 5))) {
+                    LocalDateTime start = origin.plusDays(random.nextInt(120));
+                    items.add(item(carId, start, start.plusDays(random.nextInt(4))));
+                }
+
+                List<BatchReservationResultDTO> results =
+                        inTransaction(true, () -> reservationService.createReservationBatch(items));
+                for (BatchReservationResultDTO result : results) {
+                    if (result.isSuccess()) {
+                        accepted.add(Booking.of(result.getReservation()));
+                    } else {
+                        assertThat(result.getMessage()).isEqualTo(ALREADY_RESERVED);
+                    }
+                }
+            }
+        });
+
+        assertThat(accepted).isNotEmpty();
+        assertNoOverlaps(accepted);
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private Reservation request(Long carId, LocalDateTime start, LocalDateTime end) {
+        Car car = new Car();
+        car.setId(carId);
+        User requester = new User();
+        requester.setId(user.getId());
+        Reservation reservation = new Reservation();
+        reservation.setCar(car);
+        reservation.setUser(requester);
+        reservation.setStartDate(start);
+        reservation.setEndDate(end);
+        return reservation;
+    }
+
+    private CreateReservationDTO item(Long carId, LocalDateTime start, LocalDateTime end) {
+        CreateReservationDTO item = new CreateReservationDTO();
+        item.setCarId(carId);
+        item.setUserId(user.getId());
+        item.setStartDate(start);
+        item.setEndDate(end);
+        return item;
+    }
+
+    private Reservation withId(Reservation reservation) {
+        reservation.setId(ids.incrementAndGet());
+        return reservation;
+    }
+
+    // Cars come back in no particular order, so only the locks decide the locking order
+    private Map<Long, Car> shuffled(Collection<Long> carIds) {
+        List<Long> order = new ArrayList<>(carIds);
+        Collections.shuffle(order, ThreadLocalRandom.current());
+        Map<Long, Car> found = new LinkedHashMap<>();
+        for (Long carId : order) {
+            found.put(carId, cars.get(carId));
+        }
+        return found;
+    }
+
+    // A failed booking rolls back, which releases its locks like the real transaction manager would
+    private static <T> T inTransaction(boolean commit, Supplier<T> work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            T result;
+            try {
+                result = work.get();
+            } catch (RuntimeException e) {
+                complete(false);
+                throw e;
+            }
+            complete(commit);
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(boolean commit) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (commit) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        int status = commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                // A deadlock shows up as a timeout here
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertNoOverlaps(Collection<Booking> accepted) {
+        List<Booking> all = new ArrayList<>(accepted);
+        for (int a = 0; a < all.size(); a++) {
+            for (int b = a + 1; b < all.size(); b++) {
+                Booking first = all.get(a);
+                Booking second = all.get(b);
+                if (first.carId().equals(second.carId())) {
+                    assertThat(first.overlaps(second)).as("%s overlaps %s", first, second).isFalse();
+                }
+            }
+        }
+    }
+
+    private record Booking(Long carId, LocalDateTime start, LocalDateTime end) {
+        static Booking of(Reservation reservation) {
+            return new Booking(reservation.getCar().getId(), reservation.getStartDate(), reservation.getEndDate());
+        }
+
+        static Booking of(ReservationDTO reservation) {
+            return new Booking(reservation.getCarId(), reservation.getStartDate(), reservation.getEndDate());
+        }
+
+        // Reservation ranges are inclusive on both ends, as in the index
+        boolean overlaps(Booking other) {
+            return !end.isBefore(other.start) && !other.end.isBefore(start);
+        }
+    }
+}